@@ -0,0 +1,206 @@
+import java.util.*;
+
+/**
+ * A minimum-cost assignment of boxes to targets, found with the Hungarian method.
+ *
+ * The cost of giving a box a target is the number of pushes from the box's square to the target
+ * (see PushDistances), so the total cost of the best assignment is a lower bound on the pushes
+ * still needed, and a much tighter one than sending every box to its nearest target.  If there is
+ * no assignment in which every box can reach its target, the position is deadlocked.
+ *
+ * A search looks at many positions that differ from one position by a single push, so the best
+ * assignment for a position can be kept as a base (see setBase).  When one box of the base moves,
+ * only its row of costs changes: its target is freed, its potential is lowered until it is
+ * feasible again, and it is assigned by a single augmenting path, which costs O(n^2) rather than
+ * the O(n^3) of starting again.  A box on a square no target can be reached from is reported as a
+ * deadlock before any of that.
+ *
+ * @version October 2026
+ */
+public class Assignment {
+	private final PushDistances distances;
+	private final int           n;
+	private final int[]         rowPot;    // potentials, boxes are rows 1..n
+	private final int[]         colPot;    // targets are columns 1..n
+	private final int[]         colRow;    // row assigned to each column (0 for none)
+	private final int[]         way;
+	private final int[]         minCol;
+	private final boolean[]     used;
+	private final int[]         boxes;     // box squares by row
+	// the assignment kept by setBase
+	private final int[]         baseRowPot;
+	private final int[]         baseColPot;
+	private final int[]         baseColRow;
+	private final int[]         baseBoxes;
+	private boolean             hasBase    = false;
+
+	/**
+	 * Constructor
+	 *
+	 * @param distances the push distances for the level (cannot be null)
+	 */
+	public Assignment(PushDistances distances) {
+		if (distances == null)
+			throw new IllegalArgumentException("distances cannot be null");
+		this.distances = distances;
+		n      = distances.numTargets();
+		rowPot = new int[n + 1];
+		colPot = new int[n + 1];
+		colRow = new int[n + 1];
+		way    = new int[n + 1];
+		minCol = new int[n + 1];
+		used   = new boolean[n + 1];
+		boxes  = new int[n + 1];
+		baseRowPot = new int[n + 1];
+		baseColPot = new int[n + 1];
+		baseColRow = new int[n + 1];
+		baseBoxes  = new int[n + 1];
+	}
+
+	/**
+	 * The least total number of pushes needed to get the boxes onto the targets, one box per target
+	 *
+	 * @param squares the box squares (one per target)
+	 * @return the total pushes, or PushDistances.INFINITE if there is no such assignment
+	 */
+	public int lowerBound(int[] squares) {
+		if (squares.length != n)
+			throw new IllegalArgumentException("need one box per target");
+		for (int i=0; i<n; i++) {
+			if (distances.isDead(squares[i]))
+				return PushDistances.INFINITE;
+			boxes[i + 1] = squares[i];
+		}
+		Arrays.fill(rowPot, 0);
+		Arrays.fill(colPot, 0);
+		Arrays.fill(colRow, 0);
+		for (int row=1; row<=n; row++)
+			if (!augment(row))
+				return PushDistances.INFINITE;
+		return total();
+	}
+
+	/**
+	 * Find the best assignment for a set of boxes, as lowerBound does, and keep it as the base
+	 * for lowerBound(int, int)
+	 *
+	 * @param squares the box squares (one per target)
+	 * @return the total pushes, or PushDistances.INFINITE if there is no such assignment
+	 */
+	public int setBase(int[] squares) {
+		int bound = lowerBound(squares);
+		hasBase = bound < PushDistances.INFINITE;
+		if (hasBase) {
+			System.arraycopy(rowPot, 0, baseRowPot, 0, n + 1);
+			System.arraycopy(colPot, 0, baseColPot, 0, n + 1);
+			System.arraycopy(colRow, 0, baseColRow, 0, n + 1);
+			System.arraycopy(boxes,  0, baseBoxes,  0, n + 1);
+		}
+		return bound;
+	}
+
+	/**
+	 * The least total number of pushes needed once one box of the base (see setBase) has moved,
+	 * found by updating the base assignment rather than starting again.  The base is not changed.
+	 *
+	 * @param i the index of the box in the squares given to setBase
+	 * @param to the square the box has moved to
+	 * @return the total pushes, or PushDistances.INFINITE if there is no such assignment
+	 */
+	public int lowerBound(int i, int to) {
+		if ((i < 0) || (i >= n))
+			throw new IllegalArgumentException("invalid box index ("+i+")");
+		if (!hasBase)
+			throw new IllegalStateException("no assignment to update");
+		if (distances.isDead(to))
+			return PushDistances.INFINITE;
+		System.arraycopy(baseRowPot, 0, rowPot, 0, n + 1);
+		System.arraycopy(baseColPot, 0, colPot, 0, n + 1);
+		System.arraycopy(baseColRow, 0, colRow, 0, n + 1);
+		System.arraycopy(baseBoxes,  0, boxes,  0, n + 1);
+		int row = i + 1;
+		boxes[row] = to;
+		// free the box's target, and make its potential feasible for its new costs
+		int least = Integer.MAX_VALUE;
+		for (int col=1; col<=n; col++) {
+			if (colRow[col] == row)
+				colRow[col] = 0;
+			least = Math.min(least, cost(row, col) - colPot[col]);
+		}
+		rowPot[row] = least;
+		if (!augment(row))
+			return PushDistances.INFINITE;
+		return total();
+	}
+
+	/**
+	 * The total cost of the current assignment
+	 *
+	 * @return the total pushes
+	 */
+	private int total() {
+		int total = 0;
+		for (int col=1; col<=n; col++)
+			total += cost(colRow[col], col);
+		return total;
+	}
+
+	/**
+	 * The cost of giving a box a target
+	 *
+	 * @param row the box row
+	 * @param col the target column
+	 * @return the number of pushes (PushDistances.INFINITE if it cannot be done)
+	 */
+	private int cost(int row, int col) {
+		return distances.distance(col - 1, boxes[row]);
+	}
+
+	/**
+	 * Assign a row, moving the other assigned rows along a shortest augmenting path
+	 *
+	 * @param row the unassigned row
+	 * @return false if every way of assigning the row costs PushDistances.INFINITE
+	 */
+	private boolean augment(int row) {
+		colRow[0] = row;
+		int col0 = 0;
+		Arrays.fill(minCol, Integer.MAX_VALUE);
+		Arrays.fill(used, false);
+		do {
+			used[col0] = true;
+			int row0  = colRow[col0];
+			int delta = Integer.MAX_VALUE;
+			int col1  = 0;
+			for (int col=1; col<=n; col++) {
+				if (used[col])
+					continue;
+				int cur = cost(row0, col) - rowPot[row0] - colPot[col];
+				if (cur < minCol[col]) {
+					minCol[col] = cur;
+					way[col]    = col0;
+				}
+				if (minCol[col] < delta) {
+					delta = minCol[col];
+					col1  = col;
+				}
+			}
+			if (delta >= PushDistances.INFINITE / 2)
+				return false;
+			for (int col=0; col<=n; col++) {
+				if (used[col]) {
+					rowPot[colRow[col]] += delta;
+					colPot[col]         -= delta;
+				} else
+					minCol[col] -= delta;
+			}
+			col0 = col1;
+		} while (colRow[col0] != 0);
+		do {
+			int col1 = way[col0];
+			colRow[col0] = colRow[col1];
+			col0 = col1;
+		} while (col0 != 0);
+		return true;
+	}
+}
@@ -0,0 +1,590 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * A packed Sokoban board.
+ *
+ * This holds the same puzzle as Sokoban, but as a flat byte array of square flags with
+ * precomputed neighbour offsets, so checking and making a move needs no objects, no virtual
+ * calls and no bounds checks.  It is intended for headless play, bots and search; the user
+ * interfaces keep using Sokoban.
+ *
+ * The screen is surrounded by a border of walls, so every square of the screen has four
+ * neighbours in the array.  Squares are numbered row by row, including the border.
+ *
+ * Unlike Sokoban, canMove only applies the rules of the game: it does not refuse pushes that
+ * would leave a box stuck.
+ *
+ * @version October 2026
+ */
+public class Board {
+	public static final byte WALL   = 1;
+	public static final byte TARGET = 2;
+	public static final byte BOX    = 4;
+
+	private final int    numRows;
+	private final int    numCols;
+	private final int    width;
+	private final byte[] squares;
+	private final int[]  offsets;
+	private int          actor       = -1;
+	private int          numBoxes    = 0;
+	private int          numTargets  = 0;
+	private int          numOnTarget = 0;
+	private final long[] boxKeys;          // Zobrist keys by square (0 on the border)
+	private final long[] actorKeys;
+	private long         boxHash     = 0;
+	private int          normal      = -1; // top-left square the actor can reach (-1 if not yet found)
+	private final Reachability reach;
+
+	/**
+	 * Construct a board from a standard Sokoban screen file
+	 *
+	 * @param file the file
+	 */
+	public Board(File file) {
+		this(Sokoban.fileAsString(file));
+	}
+
+	/**
+	 * Construct a board from a standard Sokoban screen file passed as a String
+	 *
+	 * @param screen the screen file as a String
+	 */
+	public Board(String screen) {
+		this(new Level(screen));
+	}
+
+	/**
+	 * Construct a board from a parsed level
+	 *
+	 * @param level the level (cannot be null)
+	 */
+	public Board(Level level) {
+		if (level == null)
+			throw new IllegalArgumentException("level cannot be null");
+		numRows = level.getNumRows();
+		numCols = level.getNumCols();
+		width   = numCols + 2;
+		squares = new byte[(numRows + 2) * width];
+		offsets = makeOffsets(width);
+		Arrays.fill(squares, WALL);
+		boxKeys    = new long[squares.length];
+		actorKeys  = new long[squares.length];
+		reach      = new Reachability(squares.length);
+		Zobrist zobrist = level.getZobrist();
+		for (int row=0; row<numRows; row++) {
+			for (int col=0; col<numCols; col++) {
+				char display = level.getDisplay(row, col);
+				int  sq      = index(row, col);
+				squares[sq]   = flags(display);
+				boxKeys[sq]   = zobrist.box(row, col);
+				actorKeys[sq] = zobrist.actor(row, col);
+				if (display == Sokoban.ACTOR || display == Sokoban.TARGET_ACTOR) {
+					if (actor >= 0)
+						throw new IllegalArgumentException("must be exactly one actor");
+					actor = sq;
+				}
+				if (hasBox(sq)) {
+					numBoxes++;
+					boxHash ^= boxKeys[sq];
+				}
+				if (isTarget(sq))
+					numTargets++;
+				if (hasBox(sq) && isTarget(sq))
+					numOnTarget++;
+			}
+		}
+		if (actor < 0)
+			throw new IllegalArgumentException("must be exactly one actor");
+		assert numBoxes == numTargets : "number of boxes and targets must be equal";
+	}
+
+	/**
+	 * Copy constructor (the copy shares nothing mutable with the original)
+	 *
+	 * @param other the board to copy (cannot be null)
+	 */
+	public Board(Board other) {
+		if (other == null)
+			throw new IllegalArgumentException("other cannot be null");
+		numRows     = other.numRows;
+		numCols     = other.numCols;
+		width       = other.width;
+		squares     = other.squares.clone();
+		offsets     = other.offsets;
+		actor       = other.actor;
+		numBoxes    = other.numBoxes;
+		numTargets  = other.numTargets;
+		numOnTarget = other.numOnTarget;
+		boxKeys     = other.boxKeys;
+		actorKeys   = other.actorKeys;
+		boxHash     = other.boxHash;
+		normal      = other.normal;
+		reach       = new Reachability(squares.length);
+	}
+
+	/**
+	 * The square flags for a display character
+	 *
+	 * @param display the display character
+	 * @return the square flags
+	 */
+	private static byte flags(char display) {
+		switch (display) {
+		case Sokoban.WALL:
+			return WALL;
+		case Sokoban.BOX:
+			return BOX;
+		case Sokoban.TARGET_BOX:
+			return BOX | TARGET;
+		case Sokoban.TARGET:
+		case Sokoban.TARGET_ACTOR:
+			return TARGET;
+		case Sokoban.EMPTY:
+		case Sokoban.ACTOR:
+			return 0;
+		default:
+			throw new IllegalArgumentException("not valid display character ("+display+")");
+		}
+	}
+
+	/**
+	 * The square offsets to the next square in each direction
+	 *
+	 * @param width the row length, including the border
+	 * @return the offsets, indexed by Direction.ordinal()
+	 */
+	private static int[] makeOffsets(int width) {
+		int[] offs = new int[Direction.values().length];
+		offs[Direction.NORTH.ordinal()] = -width;
+		offs[Direction.SOUTH.ordinal()] = width;
+		offs[Direction.EAST.ordinal()]  = 1;
+		offs[Direction.WEST.ordinal()]  = -1;
+		return offs;
+	}
+
+	/**
+	 * Gets the number of screen rows (not including the border)
+	 *
+	 * @return the number of screen rows
+	 */
+	public int getNumRows() {
+		return numRows;
+	}
+
+	/**
+	 * Gets the number of screen columns (not including the border)
+	 *
+	 * @return the number of screen columns
+	 */
+	public int getNumCols() {
+		return numCols;
+	}
+
+	/**
+	 * Gets the number of squares, including the border
+	 *
+	 * @return the number of squares
+	 */
+	public int size() {
+		return squares.length;
+	}
+
+	/**
+	 * The square for a screen row and column
+	 *
+	 * @param row row number (starts from 0)
+	 * @param col column number (starts from 0)
+	 * @return the square
+	 */
+	public int index(int row, int col) {
+		return (row + 1) * width + col + 1;
+	}
+
+	/**
+	 * The screen row of a square
+	 *
+	 * @param sq the square
+	 * @return the row (-1 or numRows for the border)
+	 */
+	public int getRow(int sq) {
+		return sq / width - 1;
+	}
+
+	/**
+	 * The screen column of a square
+	 *
+	 * @param sq the square
+	 * @return the column (-1 or numCols for the border)
+	 */
+	public int getCol(int sq) {
+		return sq % width - 1;
+	}
+
+	/**
+	 * The offset to the next square in a given direction
+	 *
+	 * @param dir the direction, as Direction.ordinal()
+	 * @return the square offset
+	 */
+	public int offset(int dir) {
+		return offsets[dir];
+	}
+
+	/**
+	 * Checks if a square is a wall
+	 *
+	 * @param sq the square
+	 * @return is the square a wall?
+	 */
+	public boolean isWall(int sq) {
+		return (squares[sq] & WALL) != 0;
+	}
+
+	/**
+	 * Checks if a square is a target
+	 *
+	 * @param sq the square
+	 * @return is the square a target?
+	 */
+	public boolean isTarget(int sq) {
+		return (squares[sq] & TARGET) != 0;
+	}
+
+	/**
+	 * Checks if a square holds a box
+	 *
+	 * @param sq the square
+	 * @return does the square hold a box?
+	 */
+	public boolean hasBox(int sq) {
+		return (squares[sq] & BOX) != 0;
+	}
+
+	/**
+	 * Checks if a square holds neither a wall nor a box (it may hold the actor)
+	 *
+	 * @param sq the square
+	 * @return is the square free?
+	 */
+	public boolean isFree(int sq) {
+		return (squares[sq] & (WALL | BOX)) == 0;
+	}
+
+	/**
+	 * Gets the actor square
+	 *
+	 * @return the actor square
+	 */
+	public int getActor() {
+		return actor;
+	}
+
+	/**
+	 * Gets the number of boxes
+	 *
+	 * @return the number of boxes
+	 */
+	public int numBoxes() {
+		return numBoxes;
+	}
+
+	/**
+	 * Gets the number of targets
+	 *
+	 * @return the number of targets
+	 */
+	public int numTargets() {
+		return numTargets;
+	}
+
+	/**
+	 * Gets the number of boxes on targets
+	 *
+	 * @return the number of boxes on targets
+	 */
+	public int numOnTarget() {
+		return numOnTarget;
+	}
+
+	/**
+	 * Are all the boxes on target?
+	 *
+	 * @return are all the boxes on target?
+	 */
+	public boolean onTarget() {
+		return numOnTarget == numTargets;
+	}
+
+	/**
+	 * Checks if the actor can move to the next square in a given direction
+	 *
+	 * @param dir the direction to check
+	 * @return can the actor move to the next square in a given direction?
+	 */
+	public boolean canMove(Direction dir) {
+		return canMove(dir.ordinal());
+	}
+
+	/**
+	 * Checks if the actor can move to the next square in a given direction
+	 *
+	 * @param dir the direction to check, as Direction.ordinal()
+	 * @return can the actor move to the next square in a given direction?
+	 */
+	public boolean canMove(int dir) {
+		int  off  = offsets[dir];
+		byte next = squares[actor + off];
+		if ((next & WALL) != 0)
+			return false;
+		if ((next & BOX) == 0)
+			return true;
+		return (squares[actor + off + off] & (WALL | BOX)) == 0;
+	}
+
+	/**
+	 * In which directions can the actor move?
+	 *
+	 * @return a mask of the directions, with bit Direction.ordinal() set for each
+	 */
+	public int legalMoves() {
+		int mask = 0;
+		for (int dir=0; dir<4; dir++)
+			if (canMove(dir))
+				mask |= 1 << dir;
+		return mask;
+	}
+
+	/**
+	 * Move the actor to the next square in a given direction, pushing any box there
+	 *
+	 * @param dir the direction to move
+	 * @return was a box pushed?
+	 */
+	public boolean move(Direction dir) {
+		return move(dir.ordinal());
+	}
+
+	/**
+	 * Move the actor to the next square in a given direction, pushing any box there
+	 *
+	 * @param dir the direction to move, as Direction.ordinal()
+	 * @return was a box pushed?
+	 */
+	public boolean move(int dir) {
+		if (!canMove(dir))
+			throw new IllegalArgumentException("cannot move "+Direction.values()[dir]);
+		int     next   = actor + offsets[dir];
+		boolean pushed = hasBox(next);
+		if (pushed)
+			moveBox(next, next + offsets[dir]);
+		actor = next;
+		return pushed;
+	}
+
+	/**
+	 * Take back a move made in a given direction
+	 *
+	 * @param dir the direction of the move, as Direction.ordinal()
+	 * @param pushed was a box pushed by the move?
+	 */
+	public void unmove(int dir, boolean pushed) {
+		int prev = actor - offsets[dir];
+		if (!isFree(prev))
+			throw new IllegalArgumentException("cannot take back "+Direction.values()[dir]);
+		if (pushed) {
+			int box = actor + offsets[dir];
+			if (!hasBox(box))
+				throw new IllegalArgumentException("no box to take back");
+			moveBox(box, actor);
+		}
+		actor = prev;
+	}
+
+	/**
+	 * Move the actor to a free square (for search, which works in pushes rather than steps)
+	 *
+	 * @param sq the square
+	 */
+	public void setActor(int sq) {
+		if (!isFree(sq))
+			throw new IllegalArgumentException("actor square must be free");
+		if (sq != actor) {
+			actor  = sq;
+			normal = -1;
+		}
+	}
+
+	/**
+	 * Push the box in a square one square in a given direction, leaving the actor where the box
+	 * was.  The actor does not have to be next to the box (search moves it there separately).
+	 *
+	 * @param box the square holding the box
+	 * @param dir the direction to push, as Direction.ordinal()
+	 */
+	public void push(int box, int dir) {
+		int to = box + offsets[dir];
+		if (!hasBox(box) || !isFree(to))
+			throw new IllegalArgumentException("cannot push "+Direction.values()[dir]);
+		moveBox(box, to);
+		actor = box;
+	}
+
+	/**
+	 * Put a box in a free square, other than the actor's
+	 *
+	 * @param sq the square
+	 */
+	public void addBox(int sq) {
+		if (!isFree(sq) || (sq == actor))
+			throw new IllegalArgumentException("box square must be free");
+		squares[sq] |= BOX;
+		numBoxes++;
+		if (isTarget(sq))
+			numOnTarget++;
+		boxHash ^= boxKeys[sq];
+		normal   = -1;
+	}
+
+	/**
+	 * Take the box out of a square
+	 *
+	 * @param sq the square
+	 */
+	public void removeBox(int sq) {
+		if (!hasBox(sq))
+			throw new IllegalArgumentException("square must hold a box");
+		squares[sq] &= ~BOX;
+		numBoxes--;
+		if (isTarget(sq))
+			numOnTarget--;
+		boxHash ^= boxKeys[sq];
+		normal   = -1;
+	}
+
+	/**
+	 * Move the boxes and the actor to where they are in a snapshot of a puzzle of the same level,
+	 * without parsing the puzzle again
+	 *
+	 * @param snapshot the snapshot (see Sokoban.snapshot())
+	 */
+	public void restore(Sokoban.Snapshot snapshot) {
+		if (snapshot == null)
+			throw new IllegalArgumentException("snapshot cannot be null");
+		Level level = snapshot.getLevel();
+		if ((level.getNumRows() != numRows) || (level.getNumCols() != numCols))
+			throw new IllegalArgumentException("snapshot is from a different level");
+		for (int box : getBoxes())
+			removeBox(box);
+		int cell = snapshot.getActor();
+		setActor(index(cell / numCols, cell % numCols));
+		long[] boxes = snapshot.getBoxes();
+		for (int w=0; w<boxes.length; w++) {
+			for (long bits = boxes[w]; bits != 0; bits &= bits - 1) {
+				int idx = (w << 6) + Long.numberOfTrailingZeros(bits);
+				addBox(index(idx / numCols, idx % numCols));
+			}
+		}
+	}
+
+	/**
+	 * The squares holding boxes, in increasing order
+	 *
+	 * @return the box squares
+	 */
+	public int[] getBoxes() {
+		int[] boxes = new int[numBoxes];
+		int   n     = 0;
+		for (int sq=0; sq<squares.length; sq++)
+			if (hasBox(sq))
+				boxes[n++] = sq;
+		return boxes;
+	}
+
+	/**
+	 * The target squares, in increasing order
+	 *
+	 * @return the target squares
+	 */
+	public int[] getTargets() {
+		int[] targets = new int[numTargets];
+		int   n       = 0;
+		for (int sq=0; sq<squares.length; sq++)
+			if (isTarget(sq))
+				targets[n++] = sq;
+		return targets;
+	}
+
+	/**
+	 * Move a box between two squares, keeping the target count up to date
+	 *
+	 * @param from the square holding the box
+	 * @param to the free square to move it to
+	 */
+	private void moveBox(int from, int to) {
+		squares[from] &= ~BOX;
+		squares[to]   |= BOX;
+		if (isTarget(from))
+			numOnTarget--;
+		if (isTarget(to))
+			numOnTarget++;
+		boxHash ^= boxKeys[from] ^ boxKeys[to];
+		normal   = -1;
+	}
+
+	/**
+	 * A 64-bit Zobrist key for the current position: the boxes plus the top-left square the
+	 * actor can reach.  This is the same key Sokoban.getHash() gives for the same position.
+	 *
+	 * @return the key
+	 */
+	public long getHash() {
+		return boxHash ^ actorKeys[getNormalizedActor()];
+	}
+
+	/**
+	 * The Zobrist key of the boxes alone (kept up to date by every push)
+	 *
+	 * @return the key
+	 */
+	public long getBoxHash() {
+		return boxHash;
+	}
+
+	/**
+	 * Get the top-left square (lowest row, then lowest column) the actor can reach without pushing
+	 *
+	 * @return the normalized actor square
+	 */
+	public int getNormalizedActor() {
+		if (normal < 0)
+			normal = reach.fill(this).getNormal();
+		return normal;
+	}
+
+	/**
+	 * A String representation of the board, in the same form as Sokoban.toString()
+	 *
+	 * @return the String representation
+	 */
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder((numCols + 1) * numRows);
+		for (int row=0; row<numRows; row++) {
+			for (int col=0; col<numCols; col++) {
+				int sq = index(row, col);
+				if (isWall(sq))
+					b.append(Sokoban.WALL);
+				else if (sq == actor)
+					b.append(isTarget(sq) ? Sokoban.TARGET_ACTOR : Sokoban.ACTOR);
+				else if (hasBox(sq))
+					b.append(isTarget(sq) ? Sokoban.TARGET_BOX : Sokoban.BOX);
+				else
+					b.append(isTarget(sq) ? Sokoban.TARGET : Sokoban.EMPTY);
+			}
+			b.append("\n");
+		}
+		return b.toString();
+	}
+}
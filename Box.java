@@ -47,10 +47,10 @@ public class Box extends Occupant {
 	}
 
 	/**
-	 * Check if this box is safe (from getting stuck to another box) is it moves in the given direction
+	 * Check if this box is safe (from getting frozen against walls and other boxes) if it moves in the given direction
 	 * 
 	 * @param dir the direction to check
-	 * @return can this box move in the given direction without getting stuck on another box?
+	 * @return can this box move in the given direction without freezing with a box left off target?
 	 */
 	@Override
 	public boolean isStuckSafe(Direction dir) {
@@ -61,23 +61,7 @@ public class Box extends Occupant {
 			throw new SokobanException("next must be empty");
 		if (!next.isWallSafe())
 			throw new SokobanException("next must be wall safe");
-		if (next.isTarget()) // okay to get stuck on a target
-			return true;
-		Cell nextAhead = next.getCell(dir);
-		Cell nextLeft  = next.getCell(dir.left());
-		Cell nextRight = next.getCell(dir.right());
-		// might get stuck if we move next to a box
-		boolean stuckSafe = !nextAhead.hasBox() && !nextLeft.hasBox() && !nextRight.hasBox();
-		// ... but not if the box ahead can be moved, or we still can
-		if (nextAhead.hasBox() && (next.isMoveableBoxLocation(cell, dir) || nextAhead.isMoveableBoxLocation(cell, next, dir)))
-			stuckSafe = true;
-		// ... but not if the box on the left can be moved, or we still can
-		if (nextLeft.hasBox() && (next.isMoveableBoxLocation(cell, dir.left()) || nextLeft.isMoveableBoxLocation(cell, next, dir.left())))
-			stuckSafe = true;
-		// ... but not if the box on the right can be moved, or we still can
-		if (nextRight.hasBox() && (next.isMoveableBoxLocation(cell, dir.right()) || nextRight.isMoveableBoxLocation(cell, next, dir.right())))
-			stuckSafe = true;
-		return stuckSafe;
+		return cell.isFreezeSafe(dir);
 	}
 
 	/**
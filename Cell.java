@@ -40,18 +40,19 @@ public class Cell implements Comparable<Cell> {
 	}
 
 	/**
-	 * Compares the cell with another only on the basis of rows and columns
+	 * Compares the cell with another only on the basis of rows and columns (row first)
 	 * 
 	 * @param other the other cell
-	 * @return -1 if either this row or column are smaller; 1 if either this row or column are larger; otherwise 0
+	 * @return -1 if this row is smaller, or the rows are equal and this column is smaller;
+	 *         1 if this row is larger, or the rows are equal and this column is larger; otherwise 0
 	 */
 	@Override
 	public int compareTo(Cell other) {
 		// consider row and col only
-		if ((row < other.row) || (col < other.col))
-			return -1;
-		else if ((row > other.row) || (col > other.col))
-			return 1;
+		if (row != other.row)
+			return (row < other.row) ? -1 : 1;
+		else if (col != other.col)
+			return (col < other.col) ? -1 : 1;
 		else
 			return 0;
 	}
@@ -70,6 +71,16 @@ public class Cell implements Comparable<Cell> {
 		return (row == other.row) && (col == other.col);
 	}
 
+	/**
+	 * A hash code consistent with equals, considering row and column only
+	 * 
+	 * @return the hash code
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * row + col;
+	}
+
 	/**
 	 * Gets the cell row
 	 * 
@@ -201,28 +212,13 @@ public class Cell implements Comparable<Cell> {
 
 	/**
 	 * If this Cell was empty, would it be safe to push a box into it?
-	 * (Do the walls make it impossible to push it out of this cell?)
+	 * (Do the walls make it impossible to push it from this cell to any target?)
+	 * This is looked up in the puzzle's dead cell map, which is worked out once per level.
 	 * 
 	 * @return if this Cell was empty, would it be safe to push a box into it?
 	 */
 	public boolean isWallSafe() {
-		if (hasWall())
-			return false;
-		else if (isTarget())
-			return true;
-		else if (numAdjacentWalls() >= 3)
-			return false;
-		else if (numAdjacentWalls() == 2) {
-			// two parallel Walls
-			Cell north = getCell(Direction.NORTH);
-			Cell south = getCell(Direction.SOUTH);
-			Cell east  = getCell(Direction.EAST);
-			Cell west  = getCell(Direction.WEST);
-			// two Walls at 90 degrees
-			return ((north != null) && north.hasWall() && (south != null) && south.hasWall()) ||
-					((east != null) && east.hasWall() && (west != null) && west.hasWall());
-		} else  // only one or zero adjacent Walls
-			return true;
+		return !hasWall() && !puzzle.isDeadCell(row, col);
 	}
 
 	/**
@@ -236,84 +232,14 @@ public class Cell implements Comparable<Cell> {
 	}
 
 	/**
-	 * Could a box at this location move perpendicular to the indicated direction?
-	 * The location does not currently have to contain a box (this should be separately tested if required)
-	 * Origin is the cell where the original box will move from.
-	 * (Even if it currently contains a box, origin is treated as empty)
-	 * 
-	 * @param origin where the original box will move from (cannot be null)
-	 * @param dir the direction to check
-	 * @return if a box at this location could move perpendicular to the indicated direction?
-	 */
-	public boolean isMoveableBoxLocation(Cell origin, Direction dir) {
-		if (origin == null)
-			throw new IllegalArgumentException("origin cannot be null");
-		TreeSet<Cell> visited = new TreeSet<Cell>();
-		return isMoveableBoxLocation(origin, dir, visited);
-	}
-
-	/**
-	 * Could a box at this location move perpendicular to the indicated direction?
-	 * The location does not currently have to contain a box (this should be separately tested if required)
-	 * Origin is the cell where the original box will move from.
-	 * (Even if it currently contains a box, origin is treated as empty)
-	 * Assume the taboo cell has already been visited (cannot be null)
-	 * 
-	 * @param origin where the original box will move from (cannot be null)
-	 * @param taboo a cell that is already assumed to have been visited
-	 * @param dir the direction to check
-	 * @return if a box at this location could move perpendicular to the indicated direction?
-	 */
-	public boolean isMoveableBoxLocation(Cell origin, Cell taboo, Direction dir) {
-		if (origin == null)
-			throw new IllegalArgumentException("origin cannot be null");
-		if (taboo == null)
-			throw new IllegalArgumentException("taboo cannot be null");
-		if (taboo.equals(this))
-			throw new IllegalArgumentException("taboo cannot be this cell");
-		TreeSet<Cell> visited = new TreeSet<Cell>();
-		visited.add(taboo);
-		return isMoveableBoxLocation(origin, dir, visited);
-	}
-
-	/**
-	 * Could a box at this location move perpendicular to the indicated direction?
-	 * The location does not currently have to contain a box (this should be separately tested if required)
-	 * Origin is the cell where the original box will move from.
-	 * (Even if it currently contains a box, origin is treated as empty)
-	 * The recursion has already checked all the cells in visited
+	 * If the box in this cell was pushed to the next cell in a given direction, would it be clear
+	 * of freezing (getting stuck against walls and other boxes, with a box left off target)?
 	 * 
-	 * @param origin where the original box will move from (cannot be null)
-	 * @param dir the direction to check
-	 * @param the set of cells already visited
-	 * @return if a box at this location could move perpendicular to the indicated direction?
+	 * @param dir the direction the box would be pushed
+	 * @return would the push be clear of freezing?
 	 */
-	private boolean isMoveableBoxLocation(Cell origin, Direction dir, TreeSet<Cell> visited) {
-		if (origin == null)
-			throw new IllegalArgumentException("origin cannot be null");
-		if (visited == null)
-			throw new IllegalArgumentException("visited cannot be null");
-		Cell left  = getCell(dir.left());
-		Cell right = getCell(dir.right());
-
-		//check for loops
-		if (visited.contains(this))
-			return false;
-		visited.add(this);
-		boolean visitedLeft  = visited.contains(left);
-		boolean visitedRight = visited.contains(right);
-
-		// could move left
-		if ((left != null) && (!visitedLeft) && (((left.isEmpty() || left.hasActor() || left.equals(origin)) && left.isWallSafe()) ||
-				(left.hasBox() && left.isMoveableBoxLocation(origin, dir.left(), visited))) &&
-				(right != null) && (!visitedRight) && (right.isEmpty() || right.hasActor() || right.equals(origin) ||
-						(right.hasBox() && right.isMoveableBoxLocation(origin, dir.right(), visited))))
-			return true;
-		// could move right
-		else return (right != null) && (!visitedRight) && (((right.isEmpty() || right.hasActor() || right.equals(origin)) && right.isWallSafe()) ||
-				(right.hasBox() && right.isMoveableBoxLocation(origin, dir.right(), visited))) &&
-				(left != null) && (!visitedLeft) && (left.isEmpty() || left.hasActor() || left.equals(origin) ||
-				(left.hasBox() && left.isMoveableBoxLocation(origin, dir.left(), visited)));
+	public boolean isFreezeSafe(Direction dir) {
+		return puzzle.isFreezeSafe(this, dir);
 	}
 
 	/**
@@ -377,26 +303,6 @@ public class Cell implements Comparable<Cell> {
 		return b.toString();
 	}
 
-	/**
-	 * A String representation of a TreeSet of Cells (useful for debugging)
-	 * 
-	 * @param visited a TreeSet of Cells (cannot be null)
-	 * @return the String representation
-	 */
-	public static String TreeSetToString(TreeSet<Cell> visited) {
-		if (visited == null)
-			throw new IllegalArgumentException("visited cannot be null");
-		StringBuffer b = new StringBuffer("[");
-		Iterator<Cell> iter = visited.iterator();
-		while (iter.hasNext()) {
-			b.append(iter.next().toStringFull());
-			if (iter.hasNext())
-				b.append(",");
-		}
-		b.append("]");
-		return b.toString();
-	}
-
 	/**
 	 * A trace method for debugging (active when traceOn is true)
 	 * 
@@ -0,0 +1,356 @@
+import java.util.*;
+
+/**
+ * Finds positions that can never be solved, beyond the dead squares of PushDistances: freeze
+ * deadlocks, where a box that is not on a target can never move again, and corral deadlocks,
+ * where boxes fence off squares the actor cannot reach and can never be cleared.
+ *
+ * A box is frozen if it is blocked both vertically and horizontally: along an axis by a wall on
+ * either side, by dead squares on both sides, or by a box that is itself frozen (boxes being
+ * checked count as walls, so boxes that block each other are all frozen).
+ *
+ * A corral is a region of squares the actor cannot reach, together with the boxes in and around
+ * it.  Only corrals whose boxes cannot be pushed out into the actor's region (PI-corrals) are
+ * looked at; for each, a small search is made with every other box taken off the board.  Taking
+ * boxes away only gives the corral's boxes more room, so if that search can neither push one of
+ * them out of the corral nor put them all on targets, no solution can either, and the position
+ * is deadlocked.  A search that reaches its node limit proves nothing.  The answer depends only
+ * on the corral's squares and boxes and on where the actor is left, so it is remembered, and a
+ * corral that a search meets again, after pushes elsewhere on the board, costs a lookup.  Only
+ * the corrals next to a box just pushed need be looked at, as any other was there before.
+ * A detector is not thread safe; a parallel search gives each worker thread its own.
+ *
+ * @version October 2026
+ */
+public final class DeadlockDetector {
+	private static final int DEFAULT_NODES = 256;
+	private static final int CACHE_SIZE    = 1 << 16; // corral answers remembered before starting again
+
+	private final PushDistances distances;
+	private final Reachability  reach;          // the actor's region in the position checked
+	private final PushGenerator pushes;         // for the corral searches
+	private final int[]         marks;          // stamp of the freeze check or corral flood that reached each square
+	private int                 stamp   = 0;
+	private final int[]         frozen;         // the boxes found frozen by the last freeze check
+	private int                 numFrozen = 0;
+	private final int[]         corral;         // the squares (free and box) of the corral being checked
+	private final int[]         inside;         // number of the corral flood that reached each square
+	private int                 corralStamp = 0;
+	private final long[]        squareKeys;     // random keys for the corral's squares ...
+	private final long[]        boxKeys;        // ... its boxes ...
+	private final long[]        actorKeys;      // ... and the actor, to remember the answers by
+	private final HashMap<Long, Boolean> closed = new HashMap<>();
+	private final HashSet<Long> seen    = new HashSet<>();
+	private Board               scratch = null; // the corral's boxes alone, for its search
+	private int                 maxNodes = DEFAULT_NODES;
+
+	/**
+	 * Constructor
+	 *
+	 * @param board a board of the level (only its size is used)
+	 * @param distances the push distances for the level
+	 */
+	public DeadlockDetector(Board board, PushDistances distances) {
+		if ((board == null) || (distances == null))
+			throw new IllegalArgumentException("board and distances cannot be null");
+		this.distances = distances;
+		reach  = new Reachability(board.size());
+		pushes = new PushGenerator(board.size());
+		marks  = new int[board.size()];
+		frozen = new int[board.size()];
+		corral = new int[board.size()];
+		inside = new int[board.size()];
+		SplittableRandom random = new SplittableRandom(0x5ca1ab1eL);
+		squareKeys = new long[board.size()];
+		boxKeys    = new long[board.size()];
+		actorKeys  = new long[board.size()];
+		for (int sq=0; sq<board.size(); sq++) {
+			squareKeys[sq] = random.nextLong();
+			boxKeys[sq]    = random.nextLong();
+			actorKeys[sq]  = random.nextLong();
+		}
+	}
+
+	/**
+	 * Sets the most positions a corral search may look at before giving up
+	 *
+	 * @param maxNodes the most positions (must be positive)
+	 */
+	public void setMaxNodes(int maxNodes) {
+		if (maxNodes <= 0)
+			throw new IllegalArgumentException("maxNodes must be positive");
+		this.maxNodes = maxNodes;
+		closed.clear();
+	}
+
+	/**
+	 * Is a position deadlocked after a push, by a freeze of the box pushed or by a corral?
+	 *
+	 * @param board the position after the push (not changed)
+	 * @param box the square the box was pushed to
+	 * @return is the position deadlocked?
+	 */
+	public boolean isDeadlocked(Board board, int box) {
+		return isFreezeDeadlock(board, box) || isCorralDeadlock(board, box);
+	}
+
+	/**
+	 * Is a box frozen, along with the boxes that hold it, with one of them off target?
+	 *
+	 * @param board the position (not changed)
+	 * @param box the square of the box
+	 * @return is it a freeze deadlock?
+	 */
+	public boolean isFreezeDeadlock(Board board, int box) {
+		if (!board.hasBox(box))
+			throw new IllegalArgumentException("square must hold a box");
+		nextStamp();
+		numFrozen = 0;
+		if (!isFrozen(board, box))
+			return false;
+		for (int i=0; i<numFrozen; i++)
+			if (!board.isTarget(frozen[i]))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Is a box frozen?  While it is checked it counts as a wall; if it is frozen it stays one.
+	 *
+	 * @param board the position
+	 * @param box the square of the box
+	 * @return is the box frozen?
+	 */
+	private boolean isFrozen(Board board, int box) {
+		marks[box] = stamp;
+		if (isBlocked(board, box, Direction.NORTH.ordinal()) && isBlocked(board, box, Direction.EAST.ordinal())) {
+			frozen[numFrozen++] = box;
+			return true;
+		}
+		marks[box] = 0;
+		return false;
+	}
+
+	/**
+	 * Is a box blocked along an axis?
+	 *
+	 * @param board the position
+	 * @param box the square of the box
+	 * @param dir a direction along the axis, as Direction.ordinal()
+	 * @return is the box blocked?
+	 */
+	private boolean isBlocked(Board board, int box, int dir) {
+		int a = box + board.offset(dir);
+		int b = box + board.offset(dir ^ 1);
+		if (board.isWall(a) || board.isWall(b) || (marks[a] == stamp) || (marks[b] == stamp))
+			return true;
+		if (distances.isDead(a) && distances.isDead(b))
+			return true;
+		return (board.hasBox(a) && isFrozen(board, a)) || (board.hasBox(b) && isFrozen(board, b));
+	}
+
+	/**
+	 * Does a position have a corral that can never be cleared?
+	 *
+	 * @param board the position (not changed)
+	 * @return is it a corral deadlock?
+	 */
+	public boolean isCorralDeadlock(Board board) {
+		reach.fill(board);
+		nextStamp();
+		for (int sq=0; sq<board.size(); sq++)
+			if (isDeadCorral(board, sq))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Does a push close a corral that can never be cleared?  Only the corrals next to the box
+	 * pushed are looked at.
+	 *
+	 * @param board the position after the push (not changed)
+	 * @param box the square the box was pushed to
+	 * @return is it a corral deadlock?
+	 */
+	public boolean isCorralDeadlock(Board board, int box) {
+		reach.fill(board);
+		nextStamp();
+		for (int dir=0; dir<4; dir++)
+			if (isDeadCorral(board, box + board.offset(dir)))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Is a square in a corral, not yet looked at, that can never be cleared?
+	 *
+	 * @param board the position (reach filled for it)
+	 * @param sq the square
+	 * @return is it a corral deadlock?
+	 */
+	private boolean isDeadCorral(Board board, int sq) {
+		if (!board.isFree(sq) || reach.isReachable(sq) || (marks[sq] == stamp))
+			return false;
+		int size = flood(board, sq);
+		return isPICorral(board, size) && isClosed(board, size);
+	}
+
+	/**
+	 * Gather a corral: the squares the actor cannot reach, joined through boxes
+	 *
+	 * @param board the position
+	 * @param first a free square of the corral
+	 * @return the number of squares, which are put in corral[]
+	 */
+	private int flood(Board board, int first) {
+		if (++corralStamp == 0) {
+			Arrays.fill(inside, 0);
+			corralStamp = 1;
+		}
+		int size = 0;
+		marks[first]   = stamp;
+		inside[first]  = corralStamp;
+		corral[size++] = first;
+		for (int i=0; i<size; i++) {
+			for (int dir=0; dir<4; dir++) {
+				int next = corral[i] + board.offset(dir);
+				if (!board.isWall(next) && !reach.isReachable(next) && (inside[next] != corralStamp)) {
+					marks[next]    = stamp;
+					inside[next]   = corralStamp;
+					corral[size++] = next;
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Is a corral worth a search: could none of its boxes be pushed out to where the actor is
+	 * now, and is one of them off target?
+	 *
+	 * @param board the position
+	 * @param size the number of squares in corral[]
+	 * @return is it a PI-corral that needs a search?
+	 */
+	private boolean isPICorral(Board board, int size) {
+		boolean work = false;
+		for (int i=0; i<size; i++) {
+			int sq = corral[i];
+			if (!board.hasBox(sq))
+				continue;
+			if (!board.isTarget(sq))
+				work = true;
+			for (int dir=0; dir<4; dir++) {
+				int off = board.offset(dir);
+				if (reach.isReachable(sq - off) && reach.isReachable(sq + off))
+					return false; // it can be pushed into the actor's region
+			}
+		}
+		return work;
+	}
+
+	/**
+	 * Search, with every box outside a corral taken off the board, for a way to push one of its
+	 * boxes out of the corral or to put them all on targets (or remember the answer)
+	 *
+	 * @param board the position
+	 * @param size the number of squares in corral[]
+	 * @return was no way found, in a search that ran to the end?
+	 */
+	private boolean isClosed(Board board, int size) {
+		if (scratch == null)
+			scratch = new Board(board);
+		for (int box : scratch.getBoxes())
+			scratch.removeBox(box);
+		scratch.setActor(board.getActor());
+		long key = 0;
+		for (int i=0; i<size; i++) {
+			int sq = corral[i];
+			if (board.hasBox(sq)) {
+				scratch.addBox(sq);
+				key ^= boxKeys[sq];
+			} else {
+				key ^= squareKeys[sq];
+			}
+		}
+		key ^= actorKeys[scratch.getNormalizedActor()];
+		Boolean known = closed.get(key);
+		if (known == null) {
+			known = search();
+			if (closed.size() >= CACHE_SIZE)
+				closed.clear();
+			closed.put(key, known);
+		}
+		return known;
+	}
+
+	/**
+	 * Search from the scratch board, with the corral's boxes alone, for a way to push one of them
+	 * out of the corral or to put them all on targets
+	 *
+	 * @return was no way found, in a search that ran to the end?
+	 */
+	private boolean search() {
+		int[] boxes = scratch.getBoxes();
+		ArrayDeque<int[]> queue = new ArrayDeque<>();
+		queue.add(withActor(boxes, scratch.getActor()));
+		seen.clear();
+		seen.add(scratch.getHash());
+		int[] current = boxes;
+		while (!queue.isEmpty()) {
+			if (seen.size() > maxNodes)
+				return false;
+			int[] state = queue.poll();
+			int   actor = state[state.length-1];
+			boxes = Arrays.copyOf(state, state.length-1);
+			for (int box : current)
+				scratch.removeBox(box);
+			scratch.setActor(actor);
+			for (int box : boxes)
+				scratch.addBox(box);
+			current = boxes;
+			if (scratch.numOnTarget() == scratch.numBoxes())
+				return false;
+			int num = pushes.generate(scratch);
+			for (int p=0; p<num; p++) {
+				int push = pushes.getPush(p);
+				int box  = PushGenerator.box(push);
+				int dir  = PushGenerator.dir(push);
+				int to   = box + scratch.offset(dir);
+				if (distances.isDead(to))
+					continue;
+				if (inside[to] != corralStamp)
+					return false; // out of the corral
+				scratch.push(box, dir);
+				if (seen.add(scratch.getHash()))
+					queue.add(withActor(Expander.moveBox(boxes, Arrays.binarySearch(boxes, box), to), box));
+				scratch.push(to, dir ^ 1); // pull it back
+				scratch.setActor(actor);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A search state: the box squares with the actor square after them
+	 *
+	 * @param boxes the box squares
+	 * @param actor the actor square
+	 * @return the state
+	 */
+	private static int[] withActor(int[] boxes, int actor) {
+		int[] state = Arrays.copyOf(boxes, boxes.length+1);
+		state[boxes.length] = actor;
+		return state;
+	}
+
+	/**
+	 * Start a new freeze check or corral flood
+	 */
+	private void nextStamp() {
+		if (++stamp == 0) {
+			Arrays.fill(marks, 0);
+			stamp = 1;
+		}
+	}
+}
@@ -62,6 +62,25 @@ public enum Direction {
 			return EAST;
 		}
 	}
+
+	/**
+	 * The bit for this direction in a mask of directions (see Sokoban.legalMoves)
+	 * 
+	 * @return the bit
+	 */
+	public int bit() {
+		return 1 << ordinal();
+	}
+
+	/**
+	 * Does a mask of directions include this direction?
+	 * 
+	 * @param mask the mask
+	 * @return is the bit for this direction set?
+	 */
+	public boolean in(int mask) {
+		return (mask & (1 << ordinal())) != 0;
+	}
 		
 	public static Direction fromString(String dirString) {
 		switch(dirString) {
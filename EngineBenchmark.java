@@ -0,0 +1,251 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Micro-benchmarks for the hot paths of the Sokoban engine, run over every screen file.
+ *
+ * For each screen this times parsing (Sokoban(String)), making a puzzle from a parsed Level,
+ * canMove(), legalMoves(), move(), Box.isStuckSafe, clear() and onTarget().  Each benchmark is
+ * warmed up, then measured over several iterations; the time per operation of each iteration is
+ * recorded, and the mean and minimum are written to a CSV file (one row per benchmark and screen)
+ * so that runs can be compared between releases.
+ *
+ * Usage: java EngineBenchmark [-iterations N] [-out file.csv] [screen files...]
+ * (by default screens/screen.1 to screens/screen.90 and benchmark.csv)
+ *
+ * @version October 2026
+ */
+public class EngineBenchmark {
+	private static final int  WARMUP_ITERATIONS = 5;
+	private static final long ITERATION_NANOS   = 100000000L; // at least 0.1s per iteration
+	private static final int  WALK_LENGTH       = 200;        // moves in the replayed random walk
+	private static final int  CLEAR_LENGTH      = 20;         // moves made before each timed clear
+
+	private final int         iterations;
+	private final PrintStream csv;
+	private long              sink = 0; // results are folded in here so they cannot be optimised away
+	private volatile Sokoban  current;  // read afresh each time so cheap queries cannot be hoisted
+
+	/**
+	 * A benchmark over one puzzle: an operation that can be repeated, timed in batches
+	 */
+	private static abstract class Bench {
+		final String name;
+
+		Bench(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Run the operation a number of times
+		 *
+		 * @param reps the number of times
+		 * @return the time taken in nanoseconds
+		 */
+		abstract long run(int reps);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param iterations the number of measured iterations per benchmark
+	 * @param csv where to write the results
+	 */
+	public EngineBenchmark(int iterations, PrintStream csv) {
+		if (iterations <= 0)
+			throw new IllegalArgumentException("iterations must be positive");
+		if (csv == null)
+			throw new IllegalArgumentException("csv cannot be null");
+		this.iterations = iterations;
+		this.csv        = csv;
+		csv.println("benchmark,screen,iterations,mean_ns_per_op,min_ns_per_op");
+	}
+
+	/**
+	 * Run every benchmark on a screen file
+	 *
+	 * @param file the screen file
+	 */
+	public void runAll(File file) {
+		final String               screen = Sokoban.fileAsString(file);
+		final Level                level  = new Level(file.getName(), screen);
+		final Sokoban              puzzle = new Sokoban(level);
+		final Direction[]          walk   = randomWalk(puzzle, new Random(file.getName().hashCode()));
+		final ArrayList<Cell>      boxes  = new ArrayList<>(); // boxes and directions to check isStuckSafe
+		final ArrayList<Direction> dirs   = new ArrayList<>();
+		for (int row=0; row<puzzle.getNumRows(); row++) {
+			for (int col=0; col<puzzle.getNumCols(); col++) {
+				Cell cell = puzzle.getCell(row, col);
+				if (!cell.hasBox())
+					continue;
+				for (Direction dir : Direction.values()) {
+					Cell next = cell.getCell(dir);
+					if ((next != null) && next.isEmpty() && next.isWallSafe()) {
+						boxes.add(cell);
+						dirs.add(dir);
+					}
+				}
+			}
+		}
+		current = puzzle;
+		ArrayList<Bench> benches = new ArrayList<>();
+		benches.add(new Bench("parse") {
+				long run(int reps) {
+					long begin = System.nanoTime();
+					for (int i=0; i<reps; i++)
+						sink += new Sokoban(screen).getNumRows();
+					return System.nanoTime() - begin;
+				}
+			});
+		benches.add(new Bench("fromLevel") {
+				long run(int reps) {
+					long begin = System.nanoTime();
+					for (int i=0; i<reps; i++)
+						sink += new Sokoban(level).getNumRows();
+					return System.nanoTime() - begin;
+				}
+			});
+		benches.add(new Bench("canMove") {
+				long run(int reps) {
+					long begin = System.nanoTime();
+					for (int i=0; i<reps; i++)
+						sink += puzzle.canMove().size();
+					return System.nanoTime() - begin;
+				}
+			});
+		benches.add(new Bench("legalMoves") {
+				long run(int reps) {
+					long begin = System.nanoTime();
+					for (int i=0; i<reps; i++)
+						sink += current.legalMoves();
+					return System.nanoTime() - begin;
+				}
+			});
+		if (walk.length > 0)
+			benches.add(new Bench("move") {
+				long run(int reps) {
+					long time = 0;
+					for (int i=0; i<reps; i += walk.length) {
+						long begin = System.nanoTime();
+						for (Direction dir : walk)
+							puzzle.move(dir);
+						time += System.nanoTime() - begin;
+						puzzle.clear();
+					}
+					return time;
+				}
+			});
+		if (!boxes.isEmpty())
+			benches.add(new Bench("isStuckSafe") {
+				long run(int reps) {
+					long begin = System.nanoTime();
+					for (int i=0; i<reps; i++) {
+						int k = i % boxes.size();
+						sink += boxes.get(k).isStuckSafe(dirs.get(k)) ? 1 : 0;
+					}
+					return System.nanoTime() - begin;
+				}
+			});
+		if (walk.length > 0)
+			benches.add(new Bench("clear") {
+				long run(int reps) {
+					long time = 0;
+					for (int i=0; i<reps; i++) {
+						for (int k=0; (k<walk.length) && (k<CLEAR_LENGTH); k++)
+							puzzle.move(walk[k]);
+						long begin = System.nanoTime();
+						puzzle.clear();
+						time += System.nanoTime() - begin;
+					}
+					return time;
+				}
+			});
+		benches.add(new Bench("onTarget") {
+				long run(int reps) {
+					long begin = System.nanoTime();
+					for (int i=0; i<reps; i++)
+						sink += current.onTarget() ? 1 : 0;
+					return System.nanoTime() - begin;
+				}
+			});
+		for (Bench bench : benches)
+			measure(bench, file.getName());
+	}
+
+	/**
+	 * Warm up and then measure a benchmark, writing a row of results
+	 *
+	 * @param bench the benchmark
+	 * @param screen the screen name for the results
+	 */
+	private void measure(Bench bench, String screen) {
+		// find a batch size that takes long enough to time reliably
+		int reps = 1;
+		while ((bench.run(reps) < ITERATION_NANOS / 10) && (reps < (1 << 28)))
+			reps *= 2;
+		reps *= 10;
+		for (int i=0; i<WARMUP_ITERATIONS; i++)
+			bench.run(reps);
+		double total = 0;
+		double min   = Double.MAX_VALUE;
+		for (int i=0; i<iterations; i++) {
+			double perOp = (double) bench.run(reps) / reps;
+			total += perOp;
+			min    = Math.min(min, perOp);
+		}
+		csv.printf(Locale.ROOT, "%s,%s,%d,%.2f,%.2f%n", bench.name, screen, iterations, total / iterations, min);
+		System.out.printf(Locale.ROOT, "%-12s %-10s %12.2f ns/op%n", bench.name, screen, total / iterations);
+	}
+
+	/**
+	 * A random walk of legal moves from the start of a puzzle (the puzzle is left at the start)
+	 *
+	 * @param puzzle the puzzle
+	 * @param rnd the random number generator
+	 * @return the moves
+	 */
+	private static Direction[] randomWalk(Sokoban puzzle, Random rnd) {
+		ArrayList<Direction> moves = new ArrayList<>();
+		while (moves.size() < WALK_LENGTH) {
+			Vector<Direction> choices = puzzle.canMove();
+			if (choices.isEmpty())
+				break;
+			Direction dir = choices.get(rnd.nextInt(choices.size()));
+			puzzle.move(dir);
+			moves.add(dir);
+		}
+		puzzle.clear();
+		return moves.toArray(new Direction[moves.size()]);
+	}
+
+	/**
+	 * Run the benchmarks
+	 *
+	 * @param args [-iterations N] [-out file.csv] [screen files...]
+	 */
+	public static void main(String[] args) throws IOException {
+		int             iterations = 10;
+		String          out        = "benchmark.csv";
+		ArrayList<File> files      = new ArrayList<>();
+		for (int i=0; i<args.length; i++) {
+			if (args[i].equals("-iterations") && (i+1 < args.length))
+				iterations = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-out") && (i+1 < args.length))
+				out = args[++i];
+			else
+				files.add(new File(args[i]));
+		}
+		if (files.isEmpty())
+			for (int n=1; n<=90; n++)
+				files.add(new File("screens/screen."+n));
+		PrintStream csv = new PrintStream(new FileOutputStream(out));
+		try {
+			EngineBenchmark benchmark = new EngineBenchmark(iterations, csv);
+			for (File file : files)
+				benchmark.runAll(file);
+			System.out.println("(sink "+benchmark.sink+")");
+		} finally {
+			csv.close();
+		}
+	}
+}
@@ -0,0 +1,124 @@
+import java.util.*;
+
+/**
+ * Generates the search nodes one push away from a node, on a private working board.
+ *
+ * An expander is not thread safe; a parallel search gives each worker thread its own.  The push
+ * distances are only read, so one PushDistances can be shared by all of them.
+ *
+ * @version October 2026
+ */
+class Expander {
+	private final Board            start;
+	private final Board            board;     // working copy, moved from node to node
+	private final PushDistances    distances;
+	private final Assignment       assignment;
+	private final PushGenerator    pushes;
+	private final DeadlockDetector deadlocks;
+	private int[]                  current    = null; // boxes now on the working board
+
+	/**
+	 * Constructor
+	 *
+	 * @param start the position the search starts from (not changed)
+	 * @param distances the push distances for the level
+	 */
+	Expander(Board start, PushDistances distances) {
+		this.start      = start;
+		this.board      = new Board(start);
+		this.distances  = distances;
+		this.assignment = new Assignment(distances);
+		this.pushes     = new PushGenerator(board.size());
+		this.deadlocks  = new DeadlockDetector(board, distances);
+		current         = start.getBoxes();
+	}
+
+	/**
+	 * The node for the start position
+	 *
+	 * @return the start node, or null if the start position is already deadlocked
+	 */
+	SearchNode root() {
+		int[] boxes = start.getBoxes();
+		int   h     = assignment.lowerBound(boxes);
+		if (h >= PushDistances.INFINITE)
+			return null;
+		setBoard(boxes, start.getActor());
+		return new SearchNode(boxes, start.getActor(), board.getNormalizedActor(), board.getHash(), 0, h, -1, null);
+	}
+
+	/**
+	 * Generate the nodes one push away from a node.  Pushes onto dead squares, that leave the
+	 * boxes with no assignment to targets, or that freeze a box off target or close a corral
+	 * that can never be cleared (see DeadlockDetector), are not generated.
+	 *
+	 * @param node the node
+	 * @param children the list to put the new nodes in (cleared first)
+	 */
+	void expand(SearchNode node, List<SearchNode> children) {
+		children.clear();
+		setBoard(node.boxes, node.actor);
+		if (assignment.setBase(node.boxes) >= PushDistances.INFINITE)
+			return;
+		int num = pushes.generate(board);
+		for (int p=0; p<num; p++) {
+			int push = pushes.getPush(p);
+			int box  = PushGenerator.box(push);
+			int dir  = PushGenerator.dir(push);
+			int to   = box + board.offset(dir);
+			if (distances.isDead(to))
+				continue;
+			int   i     = Arrays.binarySearch(node.boxes, box);
+			int   h     = assignment.lowerBound(i, to);
+			if (h >= PushDistances.INFINITE)
+				continue;
+			int[] boxes = moveBox(node.boxes, i, to);
+			board.push(box, dir);
+			if (!deadlocks.isDeadlocked(board, to))
+				children.add(new SearchNode(boxes, box, board.getNormalizedActor(), board.getHash(), node.g + 1, h, dir, node));
+			board.push(to, (dir ^ 1)); // pull it back: ordinals pair up as N/S and E/W
+			board.setActor(node.actor);
+		}
+	}
+
+	/**
+	 * Move the working board to a set of boxes and an actor square
+	 *
+	 * @param boxes the boxes to put on the board
+	 * @param actor the actor square
+	 */
+	private void setBoard(int[] boxes, int actor) {
+		if (boxes != current) {
+			for (int box : current)
+				board.removeBox(box);
+			board.setActor(actor);
+			for (int box : boxes)
+				board.addBox(box);
+			current = boxes;
+		}
+		board.setActor(actor);
+	}
+
+	/**
+	 * A copy of a sorted array of box squares with one box moved
+	 *
+	 * @param boxes the box squares, in increasing order
+	 * @param i the index of the box to move
+	 * @param to the square to move it to
+	 * @return the new box squares, in increasing order
+	 */
+	static int[] moveBox(int[] boxes, int i, int to) {
+		int[] moved = boxes.clone();
+		moved[i] = to;
+		while ((i > 0) && (moved[i-1] > moved[i])) {
+			moved[i] = moved[i-1];
+			moved[--i] = to;
+		}
+		while ((i < moved.length-1) && (moved[i+1] < moved[i])) {
+			moved[i] = moved[i+1];
+			moved[++i] = to;
+		}
+		return moved;
+	}
+
+}
@@ -0,0 +1,588 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * A solver for Sokoban, over pushes like Solver, that keeps its states on the disk rather than in
+ * memory, so it can finish on screens whose states would not fit in memory, only more slowly.
+ *
+ * The search is breadth-first by pushes, one layer at a time, so the first solution found has
+ * as few pushes as possible.  States whose pushes so far plus lower bound (see Assignment) exceed
+ * a bound are not kept; if no solution is found the search starts again with the bound raised to
+ * the least that was cut off, as IDA* does.  The children of a layer are gathered in memory until
+ * there are setMaxMemoryStates of them, then sorted and written to a temporary file as a run.
+ * At the end of the layer the runs are merged, dropping duplicates, at most FAN_IN at a time (a
+ * layer with more runs is first merged in passes into fewer, longer runs, so the files open and
+ * the buffers in memory stay bounded), and merged again with the sorted file of every state seen
+ * before, which drops the states already seen and writes the new layer and the new file of states
+ * seen.  All of this is streamed and sequential.  The layers are kept until the search ends, so
+ * the pushes of a solution can be found by expanding each layer again, looking for the state that
+ * led to the next.
+ *
+ * A state is stored as the box squares (in increasing order), the normalized actor square and
+ * the actual actor square, two bytes each; states are sorted and compared without the last.
+ *
+ * @version October 2026
+ */
+public class ExternalSolver {
+	private static final int    FAN_IN          = 64;  // most runs merged at once
+
+	private final Board         start;
+	private final PushDistances distances;
+	private final int           n;                     // boxes
+	private int                 maxMemoryStates = 1000000;
+	private long                timeLimit       = 0;   // milliseconds (0 for none)
+	private File                tempDir         = null; // null for the system default
+	private long                expanded        = 0;
+	private long                generated       = 0;
+	private int                 runs            = 0;
+	// the state of the current solve
+	private Path                dir             = null;
+	private Expander            expander        = null;
+	private long                deadline        = 0;
+	private int                 cutoff          = 0;   // least f above the bound of this pass
+
+	/**
+	 * Constructor
+	 *
+	 * @param board the position to solve from (cannot be null, and is not changed)
+	 */
+	public ExternalSolver(Board board) {
+		if (board == null)
+			throw new IllegalArgumentException("board cannot be null");
+		if (board.size() > 0xffff)
+			throw new IllegalArgumentException("board is too large");
+		this.start = new Board(board);
+		distances  = new PushDistances(board);
+		n          = board.numBoxes();
+	}
+
+	/**
+	 * Sets how many states may be gathered in memory before they are written to the disk
+	 *
+	 * @param maxMemoryStates the most states (must be positive)
+	 */
+	public void setMaxMemoryStates(int maxMemoryStates) {
+		if (maxMemoryStates <= 0)
+			throw new IllegalArgumentException("maxMemoryStates must be positive");
+		this.maxMemoryStates = maxMemoryStates;
+	}
+
+	/**
+	 * Sets how long the search may run before giving up
+	 *
+	 * @param millis the time limit in milliseconds (0 for no limit)
+	 */
+	public void setTimeLimit(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("time limit cannot be negative");
+		this.timeLimit = millis;
+	}
+
+	/**
+	 * Sets the directory for the temporary files
+	 *
+	 * @param tempDir the directory (null for the system default)
+	 */
+	public void setTempDir(File tempDir) {
+		this.tempDir = tempDir;
+	}
+
+	/**
+	 * Gets the number of states expanded by the last solve
+	 *
+	 * @return the number of states expanded
+	 */
+	public long getExpanded() {
+		return expanded;
+	}
+
+	/**
+	 * Gets the number of states generated by the last solve
+	 *
+	 * @return the number of states generated
+	 */
+	public long getGenerated() {
+		return generated;
+	}
+
+	/**
+	 * Gets the number of sorted runs written to the disk by the last solve
+	 *
+	 * @return the number of runs
+	 */
+	public int getRuns() {
+		return runs;
+	}
+
+	/**
+	 * Search for a solution with the fewest pushes
+	 *
+	 * @return the moves of the solution, or null if there is none or the time limit was reached
+	 */
+	public Vector<Direction> solve() {
+		deadline  = (timeLimit > 0) ? System.currentTimeMillis() + timeLimit : Long.MAX_VALUE;
+		expanded  = 0;
+		generated = 0;
+		runs      = 0;
+		expander  = new Expander(start, distances);
+		SearchNode root = expander.root();
+		if (root == null)
+			return null;
+		try {
+			dir = (tempDir == null) ? Files.createTempDirectory("sokoban") : Files.createTempDirectory(tempDir.toPath(), "sokoban");
+			int bound = root.h;
+			while (bound < PushDistances.INFINITE) {
+				List<short[]> path = search(root, bound);
+				if (path != null)
+					return replay(root, path);
+				if (System.currentTimeMillis() > deadline)
+					return null;
+				bound = cutoff;
+			}
+			return null;
+		} catch (IOException e) {
+			throw new SokobanException(""+e);
+		} finally {
+			try {
+				if (dir != null) {
+					deleteFiles();
+					Files.deleteIfExists(dir);
+				}
+			} catch (IOException e) {
+				throw new SokobanException(""+e);
+			} finally {
+				dir      = null;
+				expander = null;
+			}
+		}
+	}
+
+	/**
+	 * One breadth-first pass, keeping only states with pushes plus lower bound within a bound
+	 *
+	 * @param root the start node
+	 * @param bound the bound
+	 * @return the states from the start to a solution, or null if there is none within the bound
+	 */
+	private List<short[]> search(SearchNode root, int bound) throws IOException {
+		deleteFiles();
+		cutoff = PushDistances.INFINITE;
+		short[] first = record(root);
+		if (root.h == 0)
+			return new ArrayList<>(Collections.singletonList(first));
+		write(layer(0), Collections.singletonList(first));
+		write(seen(0), Collections.singletonList(first));
+		ArrayList<SearchNode> children = new ArrayList<>();
+		ArrayList<short[]>    buffer   = new ArrayList<>();
+		for (int g=0; ; g++) {
+			ArrayList<Path> layerRuns = new ArrayList<>();
+			short[]         goal      = null;
+			buffer.clear();
+			try (DataInputStream in = open(layer(g))) {
+				short[] state;
+				while ((goal == null) && ((state = read(in)) != null)) {
+					if (((expanded & 0xff) == 0) && (System.currentTimeMillis() > deadline))
+						return null;
+					expanded++;
+					expander.expand(node(state, g), children);
+					for (SearchNode child : children) {
+						generated++;
+						int f = child.g + child.h;
+						if (f > bound) {
+							cutoff = Math.min(cutoff, f);
+							continue;
+						}
+						short[] rec = record(child);
+						if (child.h == 0) {
+							goal = rec;
+							break;
+						}
+						buffer.add(rec);
+						if (buffer.size() >= maxMemoryStates) {
+							layerRuns.add(spill(buffer, g + 1, layerRuns.size()));
+							buffer.clear();
+						}
+					}
+				}
+			}
+			if (goal != null)
+				return path(goal, g + 1);
+			if (!buffer.isEmpty() || layerRuns.isEmpty())
+				layerRuns.add(spill(buffer, g + 1, layerRuns.size()));
+			buffer.clear();
+			if (merge(layerRuns, seen(g), layer(g + 1), seen(g + 1)) == 0)
+				return null;
+			Files.delete(seen(g));
+		}
+	}
+
+	/**
+	 * Sort the gathered states and write them as a run
+	 *
+	 * @param buffer the states
+	 * @param layer the layer they belong to
+	 * @param run the number of the run in the layer
+	 * @return the file
+	 */
+	private Path spill(List<short[]> buffer, int layer, int run) throws IOException {
+		Collections.sort(buffer, byState);
+		Path file = dir.resolve("run-"+layer+"-"+run);
+		write(file, buffer);
+		runs++;
+		return file;
+	}
+
+	/**
+	 * Merge the runs of a layer, dropping duplicates and the states seen before, writing the new
+	 * layer and the new file of the states seen, then delete the runs
+	 *
+	 * @param layerRuns the sorted runs
+	 * @param oldSeen the sorted states seen before
+	 * @param newLayer where to write the new layer
+	 * @param newSeen where to write the states seen, with the new layer
+	 * @return the number of states in the new layer
+	 */
+	private long merge(List<Path> layerRuns, Path oldSeen, Path newLayer, Path newSeen) throws IOException {
+		layerRuns = reduce(layerRuns, newLayer);
+		PriorityQueue<Run> heads = new PriorityQueue<>();
+		long               count = 0;
+		try (DataInputStream  seenIn   = open(oldSeen);
+			 DataOutputStream layerOut = create(newLayer);
+			 DataOutputStream seenOut  = create(newSeen)) {
+			openRuns(layerRuns, heads);
+			short[] old  = read(seenIn);
+			short[] last = null;
+			while (!heads.isEmpty()) {
+				Run     run   = heads.poll();
+				short[] state = run.head;
+				if (run.next())
+					heads.add(run);
+				if ((last != null) && (byState.compare(last, state) == 0))
+					continue; // a duplicate within the layer
+				last = state;
+				while ((old != null) && (byState.compare(old, state) < 0)) {
+					write(seenOut, old);
+					old = read(seenIn);
+				}
+				if ((old != null) && (byState.compare(old, state) == 0))
+					continue; // seen in an earlier layer
+				write(seenOut, state);
+				write(layerOut, state);
+				count++;
+			}
+			while (old != null) {
+				write(seenOut, old);
+				old = read(seenIn);
+			}
+		} finally {
+			for (Run run : heads)
+				run.in.close();
+			for (Path file : layerRuns)
+				Files.deleteIfExists(file);
+		}
+		return count;
+	}
+
+	/**
+	 * Merge runs, FAN_IN at a time, into longer runs without duplicates, until there are no more
+	 * than FAN_IN of them, deleting the runs merged
+	 *
+	 * @param layerRuns the sorted runs
+	 * @param newLayer the layer they are for (to name the merged runs after)
+	 * @return the runs left
+	 */
+	private List<Path> reduce(List<Path> layerRuns, Path newLayer) throws IOException {
+		int merged = 0;
+		while (layerRuns.size() > FAN_IN) {
+			ArrayList<Path> longer = new ArrayList<>();
+			for (int from=0; from<layerRuns.size(); from+=FAN_IN) {
+				List<Path> group = layerRuns.subList(from, Math.min(from + FAN_IN, layerRuns.size()));
+				Path       file  = dir.resolve(newLayer.getFileName()+"-merged-"+(merged++));
+				PriorityQueue<Run> heads = new PriorityQueue<>();
+				try (DataOutputStream out = create(file)) {
+					openRuns(group, heads);
+					short[] last = null;
+					while (!heads.isEmpty()) {
+						Run     run   = heads.poll();
+						short[] state = run.head;
+						if (run.next())
+							heads.add(run);
+						if ((last != null) && (byState.compare(last, state) == 0))
+							continue;
+						last = state;
+						write(out, state);
+					}
+				} finally {
+					for (Run run : heads)
+						run.in.close();
+					for (Path done : group)
+						Files.deleteIfExists(done);
+				}
+				longer.add(file);
+			}
+			layerRuns = longer;
+		}
+		return layerRuns;
+	}
+
+	/**
+	 * Open sorted runs for merging, keeping those with a record
+	 *
+	 * @param files the runs
+	 * @param heads the queue to put them in
+	 */
+	private void openRuns(List<Path> files, PriorityQueue<Run> heads) throws IOException {
+		for (Path file : files) {
+			Run run = new Run(open(file));
+			if (run.head != null)
+				heads.add(run);
+			else
+				run.in.close();
+		}
+	}
+
+	/**
+	 * Find the states leading from the start to a solution, by expanding each layer again to
+	 * find the state that led to the next one
+	 *
+	 * @param goal the solved state
+	 * @param g the layer it is in
+	 * @return the states, from the start
+	 */
+	private List<short[]> path(short[] goal, int g) throws IOException {
+		ArrayList<short[]>    path     = new ArrayList<>();
+		ArrayList<SearchNode> children = new ArrayList<>();
+		short[]               next     = goal;
+		path.add(goal);
+		for (int k=g-1; k>=0; k--) {
+			short[] prev = null;
+			try (DataInputStream in = open(layer(k))) {
+				short[] state;
+				while ((prev == null) && ((state = read(in)) != null)) {
+					expander.expand(node(state, k), children);
+					for (SearchNode child : children)
+						if (byState.compare(record(child), next) == 0)
+							prev = state;
+				}
+			}
+			if (prev == null)
+				throw new IllegalStateException("lost the way back to the start");
+			path.add(prev);
+			next = prev;
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+	/**
+	 * Turn the states from the start to a solution into moves, by pushing from the start node
+	 * along them
+	 *
+	 * @param root the start node
+	 * @param path the states, from the start
+	 * @return the moves
+	 */
+	private Vector<Direction> replay(SearchNode root, List<short[]> path) {
+		ArrayList<SearchNode> children = new ArrayList<>();
+		SearchNode            node     = root;
+		for (int i=1; i<path.size(); i++) {
+			expander.expand(node, children);
+			SearchNode found = null;
+			for (SearchNode child : children)
+				if (byState.compare(record(child), path.get(i)) == 0)
+					found = child;
+			if (found == null)
+				throw new IllegalStateException("lost the way to the solution");
+			node = found;
+		}
+		return node.toMoves(start);
+	}
+
+	/**
+	 * The record of a node
+	 *
+	 * @param node the node
+	 * @return the box squares, then the normalized and actual actor squares
+	 */
+	private short[] record(SearchNode node) {
+		short[] rec = new short[n + 2];
+		for (int i=0; i<n; i++)
+			rec[i] = (short) node.boxes[i];
+		rec[n]     = (short) node.normal;
+		rec[n + 1] = (short) node.actor;
+		return rec;
+	}
+
+	/**
+	 * A node to expand for a record (only its boxes, actor and pushes are used)
+	 *
+	 * @param rec the record
+	 * @param g the pushes so far
+	 * @return the node
+	 */
+	private SearchNode node(short[] rec, int g) {
+		int[] boxes = new int[n];
+		for (int i=0; i<n; i++)
+			boxes[i] = rec[i] & 0xffff;
+		return new SearchNode(boxes, rec[n + 1] & 0xffff, rec[n] & 0xffff, 0, g, 0, -1, null);
+	}
+
+	/** Orders records by box squares then normalized actor square (the actual actor is ignored) */
+	private final Comparator<short[]> byState = new Comparator<short[]>() {
+		@Override
+		public int compare(short[] a, short[] b) {
+			for (int i=0; i<=n; i++) {
+				int c = Integer.compare(a[i] & 0xffff, b[i] & 0xffff);
+				if (c != 0)
+					return c;
+			}
+			return 0;
+		}
+	};
+
+	/**
+	 * A sorted run being merged, with its next record
+	 */
+	private final class Run implements Comparable<Run> {
+		final DataInputStream in;
+		short[]               head;
+
+		Run(DataInputStream in) throws IOException {
+			this.in = in;
+			head    = read(in);
+		}
+
+		/**
+		 * Move on to the next record
+		 *
+		 * @return is there one?
+		 */
+		boolean next() throws IOException {
+			head = read(in);
+			if (head == null)
+				in.close();
+			return head != null;
+		}
+
+		@Override
+		public int compareTo(Run other) {
+			return byState.compare(head, other.head);
+		}
+	}
+
+	/**
+	 * The file of the states first reached in a number of pushes
+	 *
+	 * @param g the pushes
+	 * @return the file
+	 */
+	private Path layer(int g) {
+		return dir.resolve("layer-"+g);
+	}
+
+	/**
+	 * The file of all the states reached in up to a number of pushes
+	 *
+	 * @param g the pushes
+	 * @return the file
+	 */
+	private Path seen(int g) {
+		return dir.resolve("seen-"+g);
+	}
+
+	/**
+	 * Open a file of records to read
+	 *
+	 * @param file the file
+	 * @return the stream
+	 */
+	private DataInputStream open(Path file) throws IOException {
+		return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+	}
+
+	/**
+	 * Create a file of records to write
+	 *
+	 * @param file the file
+	 * @return the stream
+	 */
+	private DataOutputStream create(Path file) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+	}
+
+	/**
+	 * Read a record
+	 *
+	 * @param in the stream
+	 * @return the record, or null at the end of the stream
+	 */
+	private short[] read(DataInputStream in) throws IOException {
+		short[] rec = new short[n + 2];
+		try {
+			rec[0] = in.readShort();
+		} catch (EOFException e) {
+			return null;
+		}
+		for (int i=1; i<rec.length; i++)
+			rec[i] = in.readShort();
+		return rec;
+	}
+
+	/**
+	 * Write a record
+	 *
+	 * @param out the stream
+	 * @param rec the record
+	 */
+	private void write(DataOutputStream out, short[] rec) throws IOException {
+		for (short s : rec)
+			out.writeShort(s);
+	}
+
+	/**
+	 * Write a file of records
+	 *
+	 * @param file the file
+	 * @param recs the records
+	 */
+	private void write(Path file, List<short[]> recs) throws IOException {
+		try (DataOutputStream out = create(file)) {
+			for (short[] rec : recs)
+				write(out, rec);
+		}
+	}
+
+	/**
+	 * Delete the temporary files of the last pass
+	 */
+	private void deleteFiles() throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+			for (Path file : files)
+				Files.delete(file);
+		}
+	}
+
+	/**
+	 * Solve the screen files given on the command line, reporting the results
+	 *
+	 * @param args [-memory STATES] the screen files
+	 */
+	public static void main(String[] args) {
+		int maxMemoryStates = 1000000;
+		for (int i=0; i<args.length; i++) {
+			if (args[i].equals("-memory") && (i+1 < args.length)) {
+				maxMemoryStates = Integer.parseInt(args[++i]);
+				continue;
+			}
+			ExternalSolver    solver = new ExternalSolver(new Board(new File(args[i])));
+			solver.setMaxMemoryStates(maxMemoryStates);
+			long              begin  = System.currentTimeMillis();
+			Vector<Direction> moves  = solver.solve();
+			long              time   = System.currentTimeMillis() - begin;
+			System.out.println(args[i]+": "+((moves == null) ? "no solution" : moves.size()+" moves")+
+					", "+solver.getExpanded()+" expanded, "+solver.getGenerated()+" generated, "+
+					solver.getRuns()+" runs, "+time+" ms");
+		}
+	}
+}
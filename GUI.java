@@ -24,13 +24,21 @@ public class GUI  extends JFrame {
     private JPanel               optionPanel = null;
     private JButton              clearButton = null;
     private JButton              undoButton = null;
+    private JButton              redoButton = null;
     private JButton              saveButton = null;
     private JButton              loadButton = null;
     private JTextArea            info   = null;
     private Sokoban              puzzle;
     private Player               player;
     private Stack<Direction>     stack;
+    private SaveGame.Journal     journal;
+    private MovePlanner          planner;
+    private Board                planBoard;   // the puzzle's position, for the planner
+    private GUICell              pressed = null;
     private static final String  FILENAME = "screens/screen.1";
+    private static final String  SAVEFILE = "save.sok";
+    private static final String  OLDSAVEFILE = "save.txt"; // text saves from earlier versions
+    private static final String  AUTOSAVE = "autosave.sok";
     private Scanner              scnr;
 
     /**
@@ -48,6 +56,15 @@ public class GUI  extends JFrame {
 
         //makeFrame
         makeFrame();
+        //repaint only the cells each move, undo, redo or reset changed
+        puzzle.addSokobanListener(new SokobanListener() {
+                @Override
+                public void changed(SokobanEvent e) {
+                    for (Cell cell : e.getCells())
+                        cells[cell.getRow()][cell.getCol()].refreshImage();
+                }
+            });
+        resume();
 
     }
 
@@ -61,9 +78,25 @@ public class GUI  extends JFrame {
         //make grid of GUICell, using numcol and numrow        
         grid = new JPanel(new GridLayout(puzzle.getNumRows(),puzzle.getNumCols()));
         cells = new GUICell[puzzle.getNumRows()][puzzle.getNumCols()];
+        //click a cell to walk there, or drag a box to where it should go
+        MouseAdapter clicks = new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    pressed = (GUICell) e.getSource();
+                }
+
+                @Override
+                public void mouseReleased(MouseEvent e) {
+                    Component under = grid.getComponentAt(SwingUtilities.convertPoint(pressed, e.getPoint(), grid));
+                    if (under instanceof GUICell)
+                        moveTo(pressed, (GUICell) under);
+                    pressed = null;
+                }
+            };
         for (int row=0; row<puzzle.getNumRows(); row++) {
             for (int col=0; col<puzzle.getNumCols(); col++) {
                 cells[row][col] = new GUICell(puzzle.getCell(row, col),row,col);
+                cells[row][col].addMouseListener(clicks);
                 grid.add(cells[row][col]);
             }
         }
@@ -72,6 +105,7 @@ public class GUI  extends JFrame {
         ///initialize and name command Buttons
         clearButton = new JButton("Clear");
         undoButton = new JButton("Undo");
+        redoButton = new JButton("Redo");
         saveButton = new JButton("Save");
         loadButton = new JButton("Load");
         //initialize JPanel "optionPanel" which we will add button commands to      
@@ -92,6 +126,13 @@ public class GUI  extends JFrame {
                     undo();                     
                 }
             });
+        optionPanel.add (redoButton);
+        redoButton.addActionListener (new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent r) {
+                    redo();
+                }
+            });
         optionPanel.add (saveButton);
         saveButton.addActionListener (new ActionListener() {
                 @Override
@@ -115,6 +156,13 @@ public class GUI  extends JFrame {
         add (new JScrollPane(info), BorderLayout.SOUTH);
         //set window properties
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);   
+        //force the last autosaved moves to disk when the window closes
+        addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosed(WindowEvent e) {
+                    journal.close();
+                }
+            });
         setSize(550,500);
         setVisible(true);
         //make sure window spawns somewhere sensible on the screen
@@ -173,23 +221,13 @@ public class GUI  extends JFrame {
     }
 
     /**
-     * NEW - Clear - same as textUI, but new GUI instance created too.
+     * NEW - Clear - same as textUI, the cells are kept and the changed ones repainted.
      */
     void clear(){
-        puzzle = new Sokoban (new File(FILENAME));
-		grid.removeAll();
-		
-		for (int row=0; row<puzzle.getNumRows(); row++) {
-            for (int col=0; col<puzzle.getNumCols(); col++) {
-                cells[row][col] = new GUICell(puzzle.getCell(row, col),row,col);
-                grid.add(cells[row][col]);
-            }
-        }
-		
-        stack = new Stack<Direction>();    
+        puzzle.clear();
+        stack = new Stack<Direction>();
                 
         setInformation("Game reset");
-        refreshCells();
     }
 
     /**
@@ -198,15 +236,37 @@ public class GUI  extends JFrame {
     void undo(){
         if (stack.empty())
             return;
-        Direction top = stack.pop();
-        Stack<Direction> oldStack = stack;
-        clear();
-        setInformation("Move Undone"); 
-        for (Direction d : oldStack) {
-            puzzle.move(d);
-            stack.push(d);       
-        }    
-        refreshCells();
+        stack.pop();
+        puzzle.undo();
+        setInformation("Move Undone");
+    }
+
+    /**
+     * Redo - same as textUI
+     */
+    void redo(){
+        if (!puzzle.canRedo())
+            return;
+        stack.push(puzzle.redo());
+        setInformation("Move Redone");
+    }
+
+    /**
+     * Carry on from the autosave journal, if there is one for this screen, then keep
+     * journalling every move to it - same as textUI
+     */
+    private void resume(){
+        File autosave = new File(AUTOSAVE);
+        if (autosave.exists()) {
+            try {
+                SaveGame.load(puzzle, autosave);
+                stack.addAll(puzzle.getMoves());
+                setInformation("Autosaved game resumed");
+            } catch (SokobanException e) {
+                puzzle.clear();
+            }
+        }
+        journal = new SaveGame.Journal(puzzle, autosave);
     }
 
     /**
@@ -214,40 +274,32 @@ public class GUI  extends JFrame {
      */
     void save(){
         try {
-            PrintStream ps = new PrintStream(new File("save.txt"));
-            for (Direction d : stack)
-                ps.println(d.toString());
-            ps.close();
+            SaveGame.save(puzzle, new File(SAVEFILE));
             setInformation("Game Saved");
         } 
-        catch (IOException e) {
+        catch (SokobanException e) {
             setInformation("An input output error occurred");
         }  
     }
 
     /** 
-     * NEW - load() same as textUI load()
+     * NEW - load() same as textUI load() (falling back to an old save.txt), the listener
+     * repaints the cells that changed
      */
     
     void load(){
-
         try {
-            Scanner fscnr = new Scanner(new File("save.txt"));
-            clear();
-            while (fscnr.hasNextLine()) {
-                Direction d = Direction.valueOf(fscnr.nextLine());
-                puzzle.move(d);                  
-                stack.push(d);
-                setInformation("Game Loaded");
-            }
-            fscnr.close();   
-
-            
-            
-        } catch (IOException e) {
-            setInformation("an input output error occurred");
+            File file = new File(SAVEFILE);
+            if (!file.exists() && new File(OLDSAVEFILE).exists())
+                SaveGame.loadText(puzzle, new File(OLDSAVEFILE));
+            else
+                SaveGame.load(puzzle, file);
+            stack = new Stack<Direction>();
+            stack.addAll(puzzle.getMoves());
+            setInformation("Game Loaded");
+        } catch (SokobanException e) {
+            setInformation("Could not load game: "+e.getMessage());
         } 
-        refreshCells();        
     }
 
     /**
@@ -336,8 +388,7 @@ public class GUI  extends JFrame {
      * push move to stack
      */
     private void playerMove() {
-        Vector<Direction> choices = puzzle.canMove();
-        Direction         choice  = player.move(choices);
+        Direction choice = player.move(puzzle.legalMoves());
         move(choice);
         stack.push(choice);
 
@@ -348,8 +399,8 @@ public class GUI  extends JFrame {
      * 
      * @param dir the direction to move
      * 
-     * NEW - inform the user via JTextArea, and if move is legal will call to 
-     * refreshCells() for repainting.
+     * NEW - inform the user via JTextArea; if move is legal the puzzle tells the
+     * listener which cells to repaint.
      */
     private void move(Direction dir) {
         if (!puzzle.canMove(dir)) {
@@ -357,14 +408,47 @@ public class GUI  extends JFrame {
             return;
         }
         puzzle.move(dir);
-        refreshCells();
         if (puzzle.onTarget())
             setInformation("Game won!");
     } 
 
+    /**
+     * Walk the actor to the cell clicked, or, if a box was dragged, take the box to the cell it
+     * was dropped on.  The moves are planned on a board (see MovePlanner), set to the puzzle's
+     * position from a snapshot rather than parsed again, and made as one batch, so the grid is
+     * repainted once; each is still pushed to the stack to undo.
+     *
+     * @param from the cell the mouse was pressed on
+     * @param to the cell the mouse was released on
+     */
+    private void moveTo(GUICell from, GUICell to) {
+        if (planner == null) {
+            planner   = new MovePlanner(puzzle.getLevel());
+            planBoard = new Board(puzzle.getLevel());
+        }
+        planBoard.restore(puzzle.snapshot());
+        int     target   = planBoard.index(to.getRow(), to.getCol());
+        boolean dragging = (from != to) && from.cell.hasBox();
+        java.util.List<Direction> moves;
+        if (dragging)
+            moves = planner.pushTo(planBoard, planBoard.index(from.getRow(), from.getCol()), target);
+        else
+            moves = planner.walkTo(planBoard, target);
+        if ((moves == null) || !puzzle.move(moves)) {
+            setInformation(dragging ? "Cannot take the box there" : "Cannot walk there");
+            return;
+        }
+        for (Direction dir : moves)
+            stack.push(dir);
+        if (puzzle.onTarget())
+            setInformation("Game won!");
+        else
+            setInformation("Made "+moves.size()+" moves");
+    }
+
     /**
      * refreshCells() looks through every cell in GUI and refreshes the image for 
-     * each GUI cell based upon their occupant
+     * each GUI cell based upon their occupant (only needed when the grid is first made)
      */    
     private void refreshCells() {
 
@@ -14,12 +14,14 @@ public class GUICell extends JButton {
     public Cell cell;    
     private final int row;
     private final int col;
-    private final ImageIcon targetIcon = new ImageIcon("icons/target.png");
-    private final ImageIcon emptyIcon = new ImageIcon("icons/empty.png");
-    private final ImageIcon wallIcon = new ImageIcon("icons/wall.png");
-    private final ImageIcon boxIcon = new ImageIcon("icons/box.png");
-    private final ImageIcon actorIcon = new ImageIcon("icons/actor.png");
-    private final ImageIcon ontargetIcon = new ImageIcon("icons/ontarget.png");
+    //the icons are loaded once and shared by every cell, rather than loaded again for each cell
+    private static final ImageIcon targetIcon = new ImageIcon("icons/target.png");
+    private static final ImageIcon emptyIcon = new ImageIcon("icons/empty.png");
+    private static final ImageIcon wallIcon = new ImageIcon("icons/wall.png");
+    private static final ImageIcon boxIcon = new ImageIcon("icons/box.png");
+    private static final ImageIcon actorIcon = new ImageIcon("icons/actor.png");
+    private static final ImageIcon ontargetIcon = new ImageIcon("icons/ontarget.png");
+    private static final ImageIcon targetactorIcon = new ImageIcon("icons/targetactor.png");
 
     /**
      * Constructor for objects of class GUICell
@@ -31,14 +33,34 @@ public class GUICell extends JButton {
         row = r;
         col = c;        
         setSize(new Dimension(25,25));
+        //clicks walk or drag, but the arrow keys stay with the frame
+        setFocusable(false);
 
     }
 
+    /**
+     * Gets the row of the cell
+     *
+     * @return row number (starts from 0)
+     */
+    public int getRow(){
+        return row;
+    }
+
+    /**
+     * Gets the column of the cell
+     *
+     * @return column number (starts from 0)
+     */
+    public int getCol(){
+        return col;
+    }
+
     
     /**
      * refreshImage() gets the current cell content of the board and repaints the board based on the 
      * cell contents based on the occupant. Invalid occupant will invoke
-     * SokobanException.
+     * SokobanException. Only the icon is swapped, so Swing repaints just this cell.
      */
 
     public void refreshImage(){
@@ -54,11 +76,9 @@ public class GUICell extends JButton {
             if (occ.isWall()) {
                 setIcon(wallIcon);
             } else if (occ.isBox()) {
-                setIcon(boxIcon);
+                setIcon(cell.isTarget() ? ontargetIcon : boxIcon);
             } else if (occ.isActor()) {
-                setIcon(actorIcon);
-            } else if (occ.onTarget()) {
-                setIcon(ontargetIcon);
+                setIcon(cell.isTarget() ? targetactorIcon : actorIcon);
             } else {
 
                 throw new SokobanException("invalid occupant");
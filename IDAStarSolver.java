@@ -0,0 +1,204 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * An IDA* solver for Sokoban, for when memory is short: it searches over pushes with the same
+ * states, lower bound and pruning as Solver, but depth-first.
+ *
+ * Each pass searches depth-first from the start, cutting off any state whose pushes so far plus
+ * lower bound (see Assignment) exceed a bound; if no solution is found the bound is raised to the
+ * least that was cut off and the search starts again, so the first solution found has as few
+ * pushes as possible.  Only the path being searched and the pushes from each state on it are kept,
+ * so memory grows with the depth of the solution, not the number of states, plus a fixed-size
+ * TranspositionTable of the states met in this pass and the fewest pushes each was met in.  A
+ * state met again in no fewer pushes is not searched again, as it can do no better than before;
+ * one the table has forgotten is searched again, which costs time but is never wrong.  The pushes
+ * from a state are tried in order of lower bound, so a solution is found early in the last pass.
+ * A solver is not thread safe, but any number may be run side by side.
+ *
+ * @version October 2026
+ */
+public class IDAStarSolver {
+	private static final long DEFAULT_TABLE = 16L << 20; // bytes
+
+	private final Board         start;
+	private final PushDistances distances;
+	private long                tableBytes = DEFAULT_TABLE;
+	private long                timeLimit  = 0;        // milliseconds (0 for none)
+	private long                expanded   = 0;
+	private long                generated  = 0;
+	private int                 passes     = 0;
+	private long                deadline   = 0;
+	private boolean             gaveUp     = false;    // did the last pass reach the time limit?
+	private int                 cutoff     = 0;        // least f above the bound of this pass
+	private Expander            expander   = null;
+	private TranspositionTable  table      = null;
+	private final ArrayList<ArrayList<SearchNode>> levels = new ArrayList<>(); // the children at each depth
+
+	private static final Comparator<SearchNode> BY_BOUND = new Comparator<SearchNode>() {
+		@Override
+		public int compare(SearchNode a, SearchNode b) {
+			return Integer.compare(a.h, b.h);
+		}
+	};
+
+	/**
+	 * Constructor
+	 *
+	 * @param board the position to solve from (cannot be null, and is not changed)
+	 */
+	public IDAStarSolver(Board board) {
+		if (board == null)
+			throw new IllegalArgumentException("board cannot be null");
+		this.start = new Board(board);
+		distances  = new PushDistances(board);
+	}
+
+	/**
+	 * Sets the size of the table of states met in a pass
+	 *
+	 * @param bytes the table size in bytes (at least 64; rounded down to a power of two)
+	 */
+	public void setTableBytes(long bytes) {
+		if (bytes < 64)
+			throw new IllegalArgumentException("table size must be at least 64 bytes");
+		this.tableBytes = bytes;
+	}
+
+	/**
+	 * Sets how long the search may run before giving up
+	 *
+	 * @param millis the time limit in milliseconds (0 for no limit)
+	 */
+	public void setTimeLimit(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("time limit cannot be negative");
+		this.timeLimit = millis;
+	}
+
+	/**
+	 * Gets the number of states expanded by the last solve, over all its passes
+	 *
+	 * @return the number of states expanded
+	 */
+	public long getExpanded() {
+		return expanded;
+	}
+
+	/**
+	 * Gets the number of states generated by the last solve, over all its passes
+	 *
+	 * @return the number of states generated
+	 */
+	public long getGenerated() {
+		return generated;
+	}
+
+	/**
+	 * Gets the number of passes made by the last solve
+	 *
+	 * @return the number of passes
+	 */
+	public int getPasses() {
+		return passes;
+	}
+
+	/**
+	 * Search for a solution with the fewest pushes
+	 *
+	 * @return the moves of the solution, or null if there is none or the time limit was reached
+	 */
+	public Vector<Direction> solve() {
+		deadline  = (timeLimit > 0) ? System.currentTimeMillis() + timeLimit : Long.MAX_VALUE;
+		expanded  = 0;
+		generated = 0;
+		passes    = 0;
+		gaveUp    = false;
+		expander  = new Expander(start, distances);
+		table     = new TranspositionTable(tableBytes);
+		try {
+			SearchNode root = expander.root();
+			if (root == null)
+				return null;
+			int bound = root.h;
+			while (bound < PushDistances.INFINITE) {
+				passes++;
+				cutoff = PushDistances.INFINITE;
+				table.clear();
+				table.put(root.hash, root.check(), root.g);
+				SearchNode goal = search(root, bound);
+				if (goal != null)
+					return goal.toMoves(start);
+				if (gaveUp)
+					return null;
+				bound = cutoff;
+			}
+			return null;
+		} finally {
+			expander = null;
+			table    = null;
+			levels.clear();
+		}
+	}
+
+	/**
+	 * Search depth-first from a node for a solution within a bound
+	 *
+	 * @param node the node (with pushes plus lower bound within the bound)
+	 * @param bound the bound
+	 * @return the solved node, or null if there is none within the bound (or the search gave up)
+	 */
+	private SearchNode search(SearchNode node, int bound) {
+		if (node.h == 0)
+			return node;
+		if (((expanded & 0xff) == 0) && (System.currentTimeMillis() > deadline)) {
+			gaveUp = true;
+			return null;
+		}
+		expanded++;
+		if (levels.size() <= node.g)
+			levels.add(new ArrayList<SearchNode>());
+		ArrayList<SearchNode> children = levels.get(node.g);
+		expander.expand(node, children);
+		generated += children.size();
+		Collections.sort(children, BY_BOUND);
+		for (int c=0; c<children.size(); c++) {
+			SearchNode child = children.get(c);
+			int        f     = child.g + child.h;
+			if (f > bound) {
+				cutoff = Math.min(cutoff, f);
+				continue;
+			}
+			if (!table.put(child.hash, child.check(), child.g))
+				continue; // met before in as few pushes, and searched from then
+			SearchNode goal = search(child, bound);
+			if ((goal != null) || gaveUp)
+				return goal;
+		}
+		return null;
+	}
+
+	/**
+	 * Solve the screen files given on the command line, reporting the results
+	 *
+	 * @param args [-table MB] the screen files
+	 */
+	public static void main(String[] args) {
+		long tableBytes = DEFAULT_TABLE;
+		for (int i=0; i<args.length; i++) {
+			if (args[i].equals("-table") && (i+1 < args.length)) {
+				tableBytes = Long.parseLong(args[++i]) << 20;
+				continue;
+			}
+			String            arg    = args[i];
+			IDAStarSolver     solver = new IDAStarSolver(new Board(new File(arg)));
+			solver.setTableBytes(tableBytes);
+			long              begin  = System.currentTimeMillis();
+			Vector<Direction> moves  = solver.solve();
+			long              time   = System.currentTimeMillis() - begin;
+			System.out.println(arg+": "+((moves == null) ? "no solution" : moves.size()+" moves")+
+					", "+solver.getExpanded()+" expanded, "+solver.getGenerated()+" generated, "+
+					solver.getPasses()+" passes, "+time+" ms");
+		}
+	}
+}
@@ -0,0 +1,175 @@
+import java.util.*;
+
+/**
+ * An immutable, parsed Sokoban screen: a template from which puzzles and boards are made.
+ *
+ * The screen text is split into lines once, and the display character of every cell is kept
+ * in a flat array, padded with empty cells to a rectangle.  The Zobrist keys and the dead cells
+ * (see PushDistances) depend only on the screen, so they are also kept here and shared by every
+ * puzzle made from the level.  A level can be shared freely between threads.
+ *
+ * @version October 2026
+ */
+public final class Level {
+	private final String  name;
+	private final String  screen;
+	private final int     numRows;
+	private final int     numCols;
+	private final char[]  displays;          // by row*numCols+col
+	private final Zobrist zobrist;
+	private volatile BitSet deadCells = null; // found when first needed, then never changed
+
+	/**
+	 * Construct a level from a standard Sokoban screen file passed as a String
+	 *
+	 * @param screen the screen file as a String
+	 */
+	public Level(String screen) {
+		this(null, screen);
+	}
+
+	/**
+	 * Construct a named level from a standard Sokoban screen file passed as a String
+	 *
+	 * @param name the name of the level (may be null)
+	 * @param screen the screen file as a String
+	 */
+	public Level(String name, String screen) {
+		if (screen == null)
+			throw new IllegalArgumentException("screen cannot be null");
+		this.name   = name;
+		this.screen = screen;
+		// split into lines (\n, \r\n or \r), skipping empty lines
+		ArrayList<String> lines = new ArrayList<>();
+		int               cols  = 0;
+		int               begin = 0;
+		int               len   = screen.length();
+		for (int i=0; i<=len; i++) {
+			char c = (i < len) ? screen.charAt(i) : '\n';
+			if ((c != '\n') && (c != '\r'))
+				continue;
+			if (i > begin) {
+				lines.add(screen.substring(begin, i));
+				cols = Math.max(cols, i - begin);
+			}
+			if ((c == '\r') && (i+1 < len) && (screen.charAt(i+1) == '\n'))
+				i++;
+			begin = i + 1;
+		}
+		numRows  = lines.size();
+		numCols  = cols;
+		displays = new char[numRows * numCols];
+		Arrays.fill(displays, Sokoban.EMPTY);
+		for (int row=0; row<numRows; row++) {
+			String line = lines.get(row);
+			line.getChars(0, line.length(), displays, row * numCols);
+		}
+		zobrist = new Zobrist(numRows, numCols);
+	}
+
+	/**
+	 * Gets the name of the level
+	 *
+	 * @return the name (null if it has none)
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the screen file the level was parsed from
+	 *
+	 * @return the screen file as a String
+	 */
+	public String getScreen() {
+		return screen;
+	}
+
+	/**
+	 * Gets the number of cell rows
+	 *
+	 * @return the number of cell rows
+	 */
+	public int getNumRows() {
+		return numRows;
+	}
+
+	/**
+	 * Gets the number of cell columns
+	 *
+	 * @return the number of cell columns
+	 */
+	public int getNumCols() {
+		return numCols;
+	}
+
+	/**
+	 * Gets the starting display character of a cell
+	 *
+	 * @param row row number (starts from 0)
+	 * @param col column number (starts from 0)
+	 * @return the display character
+	 */
+	public char getDisplay(int row, int col) {
+		if ((row < 0) || (row >= numRows) || (col < 0) || (col >= numCols))
+			throw new IllegalArgumentException("invalid cell ("+row+","+col+")");
+		return displays[row * numCols + col];
+	}
+
+	/**
+	 * A 64-bit checksum of the level (its size and the starting display of every cell), to
+	 * check that a saved game is for this level
+	 *
+	 * @return the checksum
+	 */
+	public long getChecksum() {
+		long sum = 0xcbf29ce484222325L; // FNV-1a
+		sum = (sum ^ numRows) * 0x100000001b3L;
+		sum = (sum ^ numCols) * 0x100000001b3L;
+		for (char display : displays)
+			sum = (sum ^ display) * 0x100000001b3L;
+		return sum;
+	}
+
+	/**
+	 * Gets the Zobrist keys for the level
+	 *
+	 * @return the keys
+	 */
+	Zobrist getZobrist() {
+		return zobrist;
+	}
+
+	/**
+	 * Gets the cells from which a box could never be pushed to any target, whatever the other
+	 * boxes do.  They are found by pulling a box back from every target (see PushDistances) the
+	 * first time they are asked for; two threads asking at once may both do so, but they get
+	 * the same answer.  The result must not be changed.
+	 *
+	 * @return the dead cells, indexed by row*numCols+col
+	 */
+	BitSet getDeadCells() {
+		BitSet dead = deadCells;
+		if (dead == null) {
+			Board         board     = new Board(this);
+			PushDistances distances = new PushDistances(board);
+			dead = new BitSet(numRows * numCols);
+			for (int row=0; row<numRows; row++)
+				for (int col=0; col<numCols; col++)
+					if (!board.isWall(board.index(row, col)) && distances.isDead(board.index(row, col)))
+						dead.set(row * numCols + col);
+			deadCells = dead;
+		}
+		return dead;
+	}
+
+	/**
+	 * A String representation of the level (its name)
+	 *
+	 * @return the String representation
+	 */
+	@Override
+	public String toString() {
+		return (name == null) ? "level" : name;
+	}
+}
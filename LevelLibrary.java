@@ -0,0 +1,186 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A library of levels loaded from a directory of standard Sokoban screen files.
+ *
+ * The whole directory is loaded at once: each file is read in one bulk read and parsed into an
+ * immutable Level, including its dead cells, with the files split across a ForkJoinPool.  After
+ * that, new puzzles and boards are made from the kept levels with no I/O and no parsing.  The
+ * levels are in order of name, with any trailing numbers compared as numbers (so screen.2
+ * comes before screen.10).  A library can be shared freely between threads.
+ *
+ * @version October 2026
+ */
+public class LevelLibrary {
+	/** The directory the screen files are normally in */
+	public static final String SCREENS = "screens";
+
+	private static final int SPLIT = 4; // load this many files without forking further
+
+	private final List<Level>        levels;
+	private final Map<String, Level> byName;
+
+	/**
+	 * Load every screen file in the default directory
+	 */
+	public LevelLibrary() {
+		this(new File(SCREENS));
+	}
+
+	/**
+	 * Load every screen file in a directory
+	 *
+	 * @param dir the directory (cannot be null)
+	 */
+	public LevelLibrary(File dir) {
+		if (dir == null)
+			throw new IllegalArgumentException("dir cannot be null");
+		ArrayList<Path> paths = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir.toPath())) {
+			for (Path path : stream)
+				if (Files.isRegularFile(path))
+					paths.add(path);
+		} catch (IOException e) {
+			throw new SokobanException(""+e);
+		}
+		Level[] loaded = new Level[paths.size()];
+		ForkJoinPool.commonPool().invoke(new Load(paths, loaded, 0, loaded.length));
+		Arrays.sort(loaded, new Comparator<Level>() {
+			@Override
+			public int compare(Level a, Level b) {
+				return compareNames(a.getName(), b.getName());
+			}
+		});
+		HashMap<String, Level> names = new HashMap<>();
+		for (Level level : loaded)
+			names.put(level.getName(), level);
+		levels = Collections.unmodifiableList(Arrays.asList(loaded));
+		byName = names;
+	}
+
+	/**
+	 * Read and parse a slice of the files, splitting it in two while it is large
+	 */
+	@SuppressWarnings("serial")
+	private static final class Load extends RecursiveAction {
+		private final List<Path> paths;
+		private final Level[]    loaded;
+		private final int        from;
+		private final int        to;
+
+		Load(List<Path> paths, Level[] loaded, int from, int to) {
+			this.paths  = paths;
+			this.loaded = loaded;
+			this.from   = from;
+			this.to     = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > SPLIT) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Load(paths, loaded, from, mid), new Load(paths, loaded, mid, to));
+				return;
+			}
+			for (int i=from; i<to; i++) {
+				Path path = paths.get(i);
+				try {
+					String screen = new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1);
+					loaded[i] = new Level(path.getFileName().toString(), screen);
+					loaded[i].getDeadCells(); // check the screen and find its dead cells now, in parallel
+				} catch (IOException e) {
+					throw new SokobanException(""+e);
+				} catch (IllegalArgumentException e) {
+					throw new SokobanException(path+": "+e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compare two level names, comparing any trailing numbers as numbers
+	 *
+	 * @param a the first name
+	 * @param b the second name
+	 * @return negative, zero or positive as a comes before, with or after b
+	 */
+	private static int compareNames(String a, String b) {
+		int ia = a.length();
+		while ((ia > 0) && Character.isDigit(a.charAt(ia-1)))
+			ia--;
+		int ib = b.length();
+		while ((ib > 0) && Character.isDigit(b.charAt(ib-1)))
+			ib--;
+		int cmp = a.substring(0, ia).compareTo(b.substring(0, ib));
+		if ((cmp == 0) && (ia < a.length()) && (ib < b.length()) && (a.length() - ia <= 18) && (b.length() - ib <= 18))
+			cmp = Long.compare(Long.parseLong(a.substring(ia)), Long.parseLong(b.substring(ib)));
+		return (cmp != 0) ? cmp : a.compareTo(b);
+	}
+
+	/**
+	 * Gets the number of levels
+	 *
+	 * @return the number of levels
+	 */
+	public int size() {
+		return levels.size();
+	}
+
+	/**
+	 * Gets all the levels, in order
+	 *
+	 * @return an unmodifiable list of the levels
+	 */
+	public List<Level> getLevels() {
+		return levels;
+	}
+
+	/**
+	 * Gets a level by its position in the library
+	 *
+	 * @param index the position (starts from 0)
+	 * @return the level
+	 */
+	public Level getLevel(int index) {
+		if ((index < 0) || (index >= levels.size()))
+			throw new IllegalArgumentException("invalid index ("+index+")");
+		return levels.get(index);
+	}
+
+	/**
+	 * Gets a level by name
+	 *
+	 * @param name the name of its screen file (e.g. screen.1)
+	 * @return the level
+	 */
+	public Level getLevel(String name) {
+		Level level = byName.get(name);
+		if (level == null)
+			throw new IllegalArgumentException("no level named "+name);
+		return level;
+	}
+
+	/**
+	 * Make a new puzzle at the start of a level
+	 *
+	 * @param name the name of the level's screen file
+	 * @return the puzzle
+	 */
+	public Sokoban newPuzzle(String name) {
+		return new Sokoban(getLevel(name));
+	}
+
+	/**
+	 * Make a new board at the start of a level
+	 *
+	 * @param name the name of the level's screen file
+	 * @return the board
+	 */
+	public Board newBoard(String name) {
+		return new Board(getLevel(name));
+	}
+}
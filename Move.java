@@ -0,0 +1,73 @@
+
+/**
+ * A single step of the actor in a Sokoban puzzle, recording whether it pushed a box, so that
+ * the step can be taken back without replaying the moves before it.
+ *
+ * There are only eight possible moves, so instances are shared (see getInstance).
+ *
+ * @version October 2026
+ */
+public final class Move {
+	private static final Move[] MOVES = new Move[2 * Direction.values().length];
+	static {
+		for (Direction dir : Direction.values()) {
+			MOVES[2 * dir.ordinal()]     = new Move(dir, false);
+			MOVES[2 * dir.ordinal() + 1] = new Move(dir, true);
+		}
+	}
+
+	private final Direction dir;
+	private final boolean   push;
+
+	/**
+	 * Constructor
+	 *
+	 * @param dir the direction moved
+	 * @param push was a box pushed?
+	 */
+	private Move(Direction dir, boolean push) {
+		this.dir  = dir;
+		this.push = push;
+	}
+
+	/**
+	 * Gets the direction moved
+	 *
+	 * @return the direction moved
+	 */
+	public Direction getDirection() {
+		return dir;
+	}
+
+	/**
+	 * Checks if this move pushed a box
+	 *
+	 * @return was a box pushed?
+	 */
+	public boolean isPush() {
+		return push;
+	}
+
+	/**
+	 * A String representation of the Move
+	 *
+	 * @return the String representation
+	 */
+	@Override
+	public String toString() {
+		return push ? "push "+dir : ""+dir;
+	}
+
+	/**
+	 * A factory method returning the shared Move for a direction and push flag
+	 *
+	 * @param dir the direction moved (cannot be null)
+	 * @param push was a box pushed?
+	 * @return the move
+	 */
+	public static Move getInstance(Direction dir, boolean push) {
+		if (dir == null)
+			throw new IllegalArgumentException("dir cannot be null");
+		return MOVES[2 * dir.ordinal() + (push ? 1 : 0)];
+	}
+}
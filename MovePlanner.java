@@ -0,0 +1,151 @@
+import java.util.*;
+
+/**
+ * Plans the moves for a click or a drag in the GUI: a shortest walk of the actor to a square,
+ * or the moves that take one box to a square while every other box stays where it is.
+ *
+ * A box is taken by a breadth-first search over (box square, side of the box the actor is on)
+ * states, so it is moved in the fewest pushes; each push is followed by a flood fill (see
+ * Reachability) to find the sides the actor can then get to.  A box is never pushed onto one of
+ * the level's dead cells, which a puzzle would refuse; a push that would freeze boxes is left
+ * for the puzzle to refuse, so a plan may still not be allowed.  The plan is read back by replaying
+ * the pushes on a copy of the board, walking to each one along a shortest path.  A planner is
+ * not thread safe.
+ *
+ * @version October 2026
+ */
+public final class MovePlanner {
+	private final Reachability reach;
+	private final BitSet       dead;   // the level's dead cells, by row*numCols+col
+	private final int          numCols;
+	private final int[]        marks;  // stamp of the search that reached each state
+	private final int[]        parent; // state each state was reached from (-1 for a start)
+	private final int[]        queue;
+	private int                stamp = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param level the level of the boards to plan on (cannot be null)
+	 */
+	public MovePlanner(Level level) {
+		if (level == null)
+			throw new IllegalArgumentException("level cannot be null");
+		int size = new Board(level).size();
+		dead    = level.getDeadCells();
+		numCols = level.getNumCols();
+		reach   = new Reachability(size);
+		marks  = new int[4 * size];
+		parent = new int[4 * size];
+		queue  = new int[4 * size];
+	}
+
+	/**
+	 * Plan a shortest walk of the actor to a square, without pushing
+	 *
+	 * @param board the board (cannot be null, and is not changed)
+	 * @param to the square to walk to
+	 * @return the steps (empty if the actor is there already), or null if it cannot be reached
+	 */
+	public List<Direction> walkTo(Board board, int to) {
+		reach.fill(board);
+		if (!reach.isReachable(to))
+			return null;
+		ArrayList<Direction> moves = new ArrayList<>();
+		reach.path(to, moves);
+		return moves;
+	}
+
+	/**
+	 * Plan the moves that take a box to a square in the fewest pushes, leaving the other boxes
+	 * where they are
+	 *
+	 * @param board the board (cannot be null, and is not changed)
+	 * @param box the square holding the box
+	 * @param to the square to take it to
+	 * @return the moves (empty if the box is there already), or null if it cannot be taken there
+	 */
+	public List<Direction> pushTo(Board board, int box, int to) {
+		if (board == null)
+			throw new IllegalArgumentException("board cannot be null");
+		if (!board.hasBox(box))
+			throw new IllegalArgumentException("square must hold a box");
+		if (box == to)
+			return new ArrayList<>();
+		if (!board.isFree(to) || isDead(board, to))
+			return null;
+		if (++stamp == 0) {
+			Arrays.fill(marks, 0);
+			stamp = 1;
+		}
+		// a state is box*4+side, with the actor on the box's side square
+		int head = 0;
+		int tail = 0;
+		reach.fill(board);
+		for (int side=0; side<4; side++) {
+			if (reach.isReachable(box + board.offset(side))) {
+				int state = (box << 2) | side;
+				marks[state]  = stamp;
+				parent[state] = -1;
+				queue[tail++] = state;
+			}
+		}
+		Board scratch = new Board(board);
+		scratch.removeBox(box);
+		int goal = -1;
+		while ((head < tail) && (goal < 0)) {
+			int state = queue[head++];
+			int from  = state >>> 2;
+			int dir   = (state & 3) ^ 1; // push away from the side the actor is on
+			int next  = from + board.offset(dir);
+			if (!scratch.isFree(next) || isDead(board, next))
+				continue;
+			// after the push the actor stands where the box was
+			scratch.setActor(from);
+			scratch.addBox(next);
+			reach.fill(scratch, from);
+			scratch.removeBox(next);
+			for (int side=0; side<4; side++) {
+				int reached = (next << 2) | side;
+				if (reach.isReachable(next + board.offset(side)) && (marks[reached] != stamp)) {
+					marks[reached]  = stamp;
+					parent[reached] = state;
+					queue[tail++]   = reached;
+					if (next == to) {
+						goal = reached;
+						break;
+					}
+				}
+			}
+		}
+		if (goal < 0)
+			return null;
+		// the pushes, from the first, then replayed to add the walks between them
+		ArrayList<Integer> pushes = new ArrayList<>();
+		for (int state = parent[goal]; state >= 0; state = parent[state])
+			pushes.add(state);
+		Collections.reverse(pushes);
+		ArrayList<Direction> moves  = new ArrayList<>();
+		Board                replay = new Board(board);
+		for (int state : pushes) {
+			int from = state >>> 2;
+			int side = state & 3;
+			reach.fill(replay).path(from + board.offset(side), moves);
+			replay.setActor(from + board.offset(side));
+			moves.add(Direction.values()[side ^ 1]);
+			replay.move(side ^ 1);
+		}
+		return moves;
+	}
+
+	/**
+	 * Is a square one of the level's dead cells?
+	 *
+	 * @param board the board
+	 * @param sq the square
+	 * @return is the square dead?
+	 */
+	private boolean isDead(Board board, int sq) {
+		return dead.get(board.getRow(sq) * numCols + board.getCol(sq));
+	}
+}
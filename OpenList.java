@@ -0,0 +1,184 @@
+import java.util.*;
+
+/**
+ * The nodes still to be expanded in a push-level search, packed into arrays rather than kept as
+ * linked SearchNodes, so a search whose seen states are in a TranspositionTable keeps little on
+ * the heap for each node it queues.
+ *
+ * A queued node is a record of shorts in one array (the boxes, the actual and normalized actor
+ * squares, the pushes, the lower bound, the push that led here, the Zobrist key and where it came
+ * from), and the queue is a binary heap of longs holding the priority and the record's slot, so
+ * nothing is allocated per node but the SearchNode handed out by poll.  Slots are reused once
+ * polled.  The pushes leading to the nodes expanded are kept in a trail of two ints each (the
+ * trail entry of the node pushed from, and the actor square and direction of the push), so a
+ * solution can still be turned into moves.  Nodes are polled by pushes so far plus weighted lower
+ * bound, then by lower bound, as Solver orders them.  Squares, pushes and bounds must fit in a
+ * short.  An open list is not thread safe.
+ *
+ * @version October 2026
+ */
+final class OpenList {
+	private final int weight;
+	private final int n;                    // boxes
+	private final int stride;               // shorts per record
+	private short[]   records;
+	private int[]     free    = new int[16]; // slots polled and not yet reused
+	private int       numFree = 0;
+	private int       slots   = 0;           // slots ever used
+	private long[]    heap    = new long[16];
+	private int       size    = 0;
+	private int[]     trail   = new int[32];
+	private int       steps   = 0;           // trail entries
+	private int       from    = -1;          // trail entry the last node polled was pushed from
+
+	/**
+	 * Constructor
+	 *
+	 * @param boxes the number of boxes in a state
+	 * @param weight the weight of the lower bound in the priority (at least 1)
+	 */
+	OpenList(int boxes, int weight) {
+		if (weight < 1)
+			throw new IllegalArgumentException("weight must be at least 1");
+		this.weight = weight;
+		this.n      = boxes;
+		this.stride = boxes + 11;
+		records     = new short[16 * stride];
+	}
+
+	/**
+	 * Gets the number of nodes queued
+	 *
+	 * @return the number of nodes
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Is the list empty?
+	 *
+	 * @return is there no node queued?
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Queue a node
+	 *
+	 * @param node the node (its parent is not kept)
+	 * @param from the trail entry of the node it was pushed from (-1 for the start)
+	 */
+	void add(SearchNode node, int from) {
+		int slot;
+		if (numFree > 0) {
+			slot = free[--numFree];
+		} else {
+			slot = slots++;
+			if (slots * stride > records.length)
+				records = Arrays.copyOf(records, 2 * records.length);
+		}
+		int at = slot * stride;
+		for (int b=0; b<n; b++)
+			records[at + b] = (short) node.boxes[b];
+		records[at + n]     = (short) node.actor;
+		records[at + n + 1] = (short) node.normal;
+		records[at + n + 2] = (short) node.g;
+		records[at + n + 3] = (short) node.h;
+		records[at + n + 4] = (short) node.dir;
+		for (int k=0; k<4; k++)
+			records[at + n + 5 + k] = (short) (node.hash >>> (16 * k));
+		records[at + n + 9]  = (short) (from >>> 16);
+		records[at + n + 10] = (short) from;
+		if (size == heap.length)
+			heap = Arrays.copyOf(heap, 2 * heap.length);
+		long key = ((long) (node.g + weight * node.h) << 48) | ((long) node.h << 32) | slot;
+		int  i   = size++;
+		while ((i > 0) && (heap[(i - 1) / 2] > key)) {
+			heap[i] = heap[(i - 1) / 2];
+			i = (i - 1) / 2;
+		}
+		heap[i] = key;
+	}
+
+	/**
+	 * Take the node first in order off the list
+	 *
+	 * @return the node (with no parent; see from), or null if the list is empty
+	 */
+	SearchNode poll() {
+		if (size == 0)
+			return null;
+		int  slot = (int) heap[0];
+		long last = heap[--size];
+		int  i    = 0;
+		while (2 * i + 1 < size) {
+			int child = 2 * i + 1;
+			if ((child + 1 < size) && (heap[child + 1] < heap[child]))
+				child++;
+			if (heap[child] >= last)
+				break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = last;
+		int   at    = slot * stride;
+		int[] boxes = new int[n];
+		for (int b=0; b<n; b++)
+			boxes[b] = records[at + b];
+		long hash = 0;
+		for (int k=0; k<4; k++)
+			hash |= (records[at + n + 5 + k] & 0xffffL) << (16 * k);
+		from = (records[at + n + 9] << 16) | (records[at + n + 10] & 0xffff);
+		if (numFree == free.length)
+			free = Arrays.copyOf(free, 2 * free.length);
+		free[numFree++] = slot;
+		return new SearchNode(boxes, records[at + n], records[at + n + 1], hash,
+				records[at + n + 2], records[at + n + 3], records[at + n + 4], null);
+	}
+
+	/**
+	 * Gets the trail entry of the node the last node polled was pushed from
+	 *
+	 * @return the trail entry (-1 for the start)
+	 */
+	int from() {
+		return from;
+	}
+
+	/**
+	 * Add the push leading to a node about to be expanded to the trail
+	 *
+	 * @param node the node
+	 * @param from the trail entry of the node it was pushed from (-1 for the start)
+	 * @return the node's trail entry, to queue its children with
+	 */
+	int record(SearchNode node, int from) {
+		if (2 * steps + 2 > trail.length)
+			trail = Arrays.copyOf(trail, 2 * trail.length);
+		trail[2 * steps]     = from;
+		trail[2 * steps + 1] = (node.actor << 2) | (node.dir & 3);
+		return steps++;
+	}
+
+	/**
+	 * Turn the pushes leading to a node into a complete list of moves
+	 *
+	 * @param start the position the search started from
+	 * @param node the node
+	 * @param from the trail entry of the node it was pushed from
+	 * @return the moves
+	 */
+	Vector<Direction> toMoves(Board start, SearchNode node, int from) {
+		ArrayList<Integer> path = new ArrayList<>();
+		for (int step = from; step >= 0; step = trail[2 * step])
+			path.add(step);
+		SearchNode parent = null;
+		for (int p=path.size()-1; p>=0; p--) {
+			int push = trail[2 * path.get(p) + 1];
+			parent = new SearchNode(null, push >> 2, 0, 0, 0, 0, push & 3, parent);
+		}
+		return new SearchNode(null, node.actor, 0, 0, 0, 0, node.dir, parent).toMoves(start);
+	}
+}
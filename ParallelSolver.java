@@ -0,0 +1,246 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A parallel version of Solver, using a ForkJoinPool.
+ *
+ * The search is A* over pushes with the same states, lower bound and pruning as Solver, but the
+ * open nodes are kept in buckets by f (pushes so far plus the lower bound), then by the lower
+ * bound, as Solver breaks ties.  All the nodes in the lowest bucket may be expanded in any order
+ * without losing optimality, because the lower bound never drops by more than one per push, so
+ * the nodes of the lowest bucket are expanded across the pool, a node to a task.  Only one node
+ * per thread is taken from the lowest bucket each round, and the lowest bucket is found again for
+ * the next, so that (as in Solver) the nodes nearer the goal that a round produces are expanded
+ * before the rest of the bucket; with one thread the search is Solver's, with ties taken first in,
+ * first out.  That order matters: taking them last in, first out expands many times the nodes.
+ * Every worker thread has its own Expander (and so its own working board); the best node found
+ * for each state is kept in one shared ConcurrentHashMap.  See SolverBenchmark for how it
+ * compares with Solver.
+ *
+ * @version October 2026
+ */
+public class ParallelSolver {
+
+	private final Board         start;
+	private final PushDistances distances;
+	private int                 parallelism = Runtime.getRuntime().availableProcessors();
+	private int                 maxStates   = 2000000;
+	private long                timeLimit   = 0;       // milliseconds (0 for none)
+	private final AtomicInteger expanded    = new AtomicInteger();
+	private final AtomicInteger generated   = new AtomicInteger();
+	// the state of the current solve, shared by the workers
+	private ConcurrentHashMap<SearchNode, SearchNode>                      seen      = null;
+	private ConcurrentSkipListMap<Long, ConcurrentLinkedQueue<SearchNode>> buckets   = null;
+	private ThreadLocal<Expander>                                          expanders = null;
+
+	/**
+	 * Constructor
+	 *
+	 * @param board the position to solve from (cannot be null, and is not changed)
+	 */
+	public ParallelSolver(Board board) {
+		if (board == null)
+			throw new IllegalArgumentException("board cannot be null");
+		this.start = new Board(board);
+		distances  = new PushDistances(board);
+	}
+
+	/**
+	 * Sets the number of worker threads
+	 *
+	 * @param parallelism the number of worker threads (must be positive)
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism <= 0)
+			throw new IllegalArgumentException("parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Sets the most states the search may store before giving up
+	 *
+	 * @param maxStates the most states (must be positive)
+	 */
+	public void setMaxStates(int maxStates) {
+		if (maxStates <= 0)
+			throw new IllegalArgumentException("maxStates must be positive");
+		this.maxStates = maxStates;
+	}
+
+	/**
+	 * Sets how long the search may run before giving up
+	 *
+	 * @param millis the time limit in milliseconds (0 for no limit)
+	 */
+	public void setTimeLimit(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("time limit cannot be negative");
+		this.timeLimit = millis;
+	}
+
+	/**
+	 * Gets the number of states expanded by the last solve
+	 *
+	 * @return the number of states expanded
+	 */
+	public int getExpanded() {
+		return expanded.get();
+	}
+
+	/**
+	 * Gets the number of states generated by the last solve
+	 *
+	 * @return the number of states generated
+	 */
+	public int getGenerated() {
+		return generated.get();
+	}
+
+	/**
+	 * Search for a solution with the fewest pushes
+	 *
+	 * @return the moves of the solution, or null if there is none or a limit was reached
+	 */
+	public Vector<Direction> solve() {
+		long deadline = (timeLimit > 0) ? System.currentTimeMillis() + timeLimit : Long.MAX_VALUE;
+		expanded.set(0);
+		generated.set(0);
+		SearchNode root = new Expander(start, distances).root();
+		if (root == null)
+			return null;
+		seen      = new ConcurrentHashMap<>(1024, 0.75f, parallelism);
+		buckets   = new ConcurrentSkipListMap<>();
+		expanders = new ThreadLocal<Expander>() {
+			@Override
+			protected Expander initialValue() {
+				return new Expander(start, distances);
+			}
+		};
+		seen.put(root, root);
+		add(root);
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			ArrayList<SearchNode> batch = new ArrayList<>();
+			while (!buckets.isEmpty()) {
+				if ((seen.size() >= maxStates) || (System.currentTimeMillis() > deadline))
+					return null;
+				batch.clear();
+				Map.Entry<Long, ConcurrentLinkedQueue<SearchNode>> lowest = buckets.firstEntry();
+				SearchNode node;
+				while ((batch.size() < parallelism) && ((node = lowest.getValue().poll()) != null)) {
+					if (seen.get(node) != node)
+						continue; // a cheaper way here was found after this was queued
+					if (node.h == 0)
+						return node.toMoves(start);
+					batch.add(node);
+				}
+				if (lowest.getValue().isEmpty())
+					buckets.remove(lowest.getKey(), lowest.getValue());
+				pool.invoke(new Expand(batch, 0, batch.size()));
+			}
+			return null;
+		} finally {
+			pool.shutdownNow();
+			seen      = null;
+			buckets   = null;
+			expanders = null;
+		}
+	}
+
+	/**
+	 * Put a node in the bucket for its f and lower bound
+	 *
+	 * @param node the node
+	 */
+	private void add(SearchNode node) {
+		long                              key    = ((long) (node.g + node.h) << 32) | node.h;
+		ConcurrentLinkedQueue<SearchNode> bucket = buckets.get(key);
+		if (bucket == null) {
+			ConcurrentLinkedQueue<SearchNode> fresh = new ConcurrentLinkedQueue<>();
+			bucket = buckets.putIfAbsent(key, fresh);
+			if (bucket == null)
+				bucket = fresh;
+		}
+		bucket.add(node);
+	}
+
+	/**
+	 * Expand a slice of a batch of nodes, splitting it in two until it is one node
+	 */
+	@SuppressWarnings("serial")
+	private final class Expand extends RecursiveAction {
+		private final List<SearchNode> batch;
+		private final int              from;
+		private final int              to;
+
+		Expand(List<SearchNode> batch, int from, int to) {
+			this.batch = batch;
+			this.from  = from;
+			this.to    = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Expand(batch, from, mid), new Expand(batch, mid, to));
+				return;
+			}
+			Expander              expander = expanders.get();
+			ArrayList<SearchNode> children = new ArrayList<>();
+			for (int i=from; i<to; i++) {
+				expander.expand(batch.get(i), children);
+				expanded.incrementAndGet();
+				for (SearchNode child : children) {
+					generated.incrementAndGet();
+					if (improve(child))
+						add(child);
+				}
+			}
+		}
+
+		/**
+		 * Record a node as the best way to its state, if it is
+		 *
+		 * @param child the node
+		 * @return was it recorded?
+		 */
+		private boolean improve(SearchNode child) {
+			SearchNode old = seen.putIfAbsent(child, child);
+			while (old != null) {
+				if (child.g >= old.g)
+					return false;
+				if (seen.replace(child, old, child))
+					return true;
+				old = seen.putIfAbsent(child, child);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Solve the screen files given on the command line, reporting the results
+	 *
+	 * @param args the screen files, optionally preceded by -threads N
+	 */
+	public static void main(String[] args) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		int first   = 0;
+		if ((args.length >= 2) && args[0].equals("-threads")) {
+			threads = Integer.parseInt(args[1]);
+			first   = 2;
+		}
+		for (int i=first; i<args.length; i++) {
+			ParallelSolver solver = new ParallelSolver(new Board(new File(args[i])));
+			solver.setParallelism(threads);
+			long              begin = System.currentTimeMillis();
+			Vector<Direction> moves = solver.solve();
+			long              time  = System.currentTimeMillis() - begin;
+			System.out.println(args[i]+": "+((moves == null) ? "no solution" : moves.size()+" moves")+
+					", "+solver.getExpanded()+" expanded, "+solver.getGenerated()+" generated, "+
+					threads+" threads, "+time+" ms");
+		}
+	}
+}
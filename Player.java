@@ -16,4 +16,22 @@ public interface Player {
 	 * @return the chosen direction
 	 */
     Direction move(Vector<Direction> choices);
+
+	/**
+	 * In which direction should the actor move, given a mask of choices?  By default the mask
+	 * is turned into a vector for move(Vector), so older players work unchanged; players that
+	 * can choose straight from the mask should override this.
+	 * 
+	 * @param legal possible directions, with dir.bit() set for each (cannot be 0)
+	 * @return the chosen direction
+	 */
+	default Direction move(int legal) {
+		if (legal == 0)
+			throw new IllegalArgumentException("cannot have empty choices");
+		Vector<Direction> choices = new Vector<>();
+		for (Direction dir : Direction.values())
+			if (dir.in(legal))
+				choices.add(dir);
+		return move(choices);
+	}
 }
@@ -0,0 +1,320 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A headless runner that plays many games of a level with a Player, on all cores, to measure
+ * how well (and how fast) the player does.
+ *
+ * Each worker thread makes its own puzzle from the level and its own player, and goes back to
+ * the start with clear() (a snapshot restore) between games, so nothing is shared but a counter
+ * of the games left.  A game ends when the puzzle is solved, when there is no move left (the
+ * player is stuck), or when it reaches the move limit.  The results are games per second, the
+ * win rate, the mean number of moves to win, and the distribution of the games not won (stuck
+ * or at the move limit) by the number of boxes they left on target.
+ *
+ * @version October 2026
+ */
+public class PlayoutRunner {
+	/**
+	 * Makes the player for each worker thread
+	 */
+	public interface PlayerFactory {
+		/**
+		 * Make a player for a puzzle
+		 *
+		 * @param puzzle the puzzle the player will play
+		 * @return the player
+		 */
+		Player newPlayer(Sokoban puzzle);
+	}
+
+	/**
+	 * The results of a run (or of one worker's share of it)
+	 */
+	public static final class Results {
+		private final Level  level;
+		private long         games      = 0;
+		private long         wins       = 0;
+		private long         winMoves   = 0; // total moves of the games won
+		private long         stuck      = 0; // games with no move left
+		private long         limited    = 0; // games that reached the move limit
+		private final long[] lost;           // games not won, by the number of boxes on target
+		private long         moves      = 0; // total moves of all games
+		private long         nanos      = 0;
+
+		private Results(Level level, int numBoxes) {
+			this.level = level;
+			this.lost  = new long[numBoxes + 1];
+		}
+
+		/**
+		 * Add another worker's results to these
+		 *
+		 * @param other the other results
+		 */
+		private void add(Results other) {
+			games    += other.games;
+			wins     += other.wins;
+			winMoves += other.winMoves;
+			stuck    += other.stuck;
+			limited  += other.limited;
+			moves    += other.moves;
+			for (int i=0; i<lost.length; i++)
+				lost[i] += other.lost[i];
+		}
+
+		/**
+		 * Gets the number of games played
+		 *
+		 * @return the number of games
+		 */
+		public long getGames() {
+			return games;
+		}
+
+		/**
+		 * Gets the number of games won
+		 *
+		 * @return the number of games won
+		 */
+		public long getWins() {
+			return wins;
+		}
+
+		/**
+		 * Gets the number of games that reached the move limit
+		 *
+		 * @return the number of games
+		 */
+		public long getLimited() {
+			return limited;
+		}
+
+		/**
+		 * Gets the number of games that ended with no move left
+		 *
+		 * @return the number of games
+		 */
+		public long getStuck() {
+			return stuck;
+		}
+
+		/**
+		 * Gets the number of games not won that left a given number of boxes on target
+		 *
+		 * @param onTarget the number of boxes on target
+		 * @return the number of games
+		 */
+		public long getLost(int onTarget) {
+			if ((onTarget < 0) || (onTarget >= lost.length))
+				throw new IllegalArgumentException("invalid number of boxes ("+onTarget+")");
+			return lost[onTarget];
+		}
+
+		/**
+		 * Gets the fraction of the games that were won
+		 *
+		 * @return the win rate
+		 */
+		public double getWinRate() {
+			return (games == 0) ? 0 : (double) wins / games;
+		}
+
+		/**
+		 * Gets the mean number of moves in the games won
+		 *
+		 * @return the mean moves (NaN if none were won)
+		 */
+		public double getMeanMovesToWin() {
+			return (wins == 0) ? Double.NaN : (double) winMoves / wins;
+		}
+
+		/**
+		 * Gets the number of games played per second of the run
+		 *
+		 * @return the games per second
+		 */
+		public double getGamesPerSecond() {
+			return (nanos == 0) ? 0 : games * 1e9 / nanos;
+		}
+
+		/**
+		 * Gets the number of moves made per second of the run
+		 *
+		 * @return the moves per second
+		 */
+		public double getMovesPerSecond() {
+			return (nanos == 0) ? 0 : moves * 1e9 / nanos;
+		}
+
+		/**
+		 * A String representation of the results
+		 *
+		 * @return the String representation
+		 */
+		@Override
+		public String toString() {
+			StringBuilder b = new StringBuilder();
+			b.append(String.format(Locale.ROOT, "%s: %d games, %.0f games/s, %.0f moves/s, win rate %.4f, mean moves to win %.1f, %d stuck, %d at move limit%n",
+					level, games, getGamesPerSecond(), getMovesPerSecond(), getWinRate(), getMeanMovesToWin(), stuck, limited));
+			b.append("  not won, by boxes on target:");
+			for (int i=0; i<lost.length; i++)
+				b.append(" "+i+":"+lost[i]);
+			return b.toString();
+		}
+	}
+
+	private final Level         level;
+	private final PlayerFactory factory;
+	private int                 threads  = Runtime.getRuntime().availableProcessors();
+	private int                 maxMoves = 1000;
+
+	/**
+	 * Constructor
+	 *
+	 * @param level the level to play (cannot be null)
+	 * @param factory makes the player for each thread (cannot be null)
+	 */
+	public PlayoutRunner(Level level, PlayerFactory factory) {
+		if ((level == null) || (factory == null))
+			throw new IllegalArgumentException("level and factory cannot be null");
+		this.level   = level;
+		this.factory = factory;
+	}
+
+	/**
+	 * Sets the number of worker threads
+	 *
+	 * @param threads the number of worker threads (must be positive)
+	 */
+	public void setThreads(int threads) {
+		if (threads <= 0)
+			throw new IllegalArgumentException("threads must be positive");
+		this.threads = threads;
+	}
+
+	/**
+	 * Sets the most moves in a game before it is given up
+	 *
+	 * @param maxMoves the most moves (must be positive)
+	 */
+	public void setMaxMoves(int maxMoves) {
+		if (maxMoves <= 0)
+			throw new IllegalArgumentException("maxMoves must be positive");
+		this.maxMoves = maxMoves;
+	}
+
+	/**
+	 * Play a number of games, shared between the worker threads
+	 *
+	 * @param games the number of games (cannot be negative)
+	 * @return the results
+	 */
+	public Results run(long games) {
+		if (games < 0)
+			throw new IllegalArgumentException("games cannot be negative");
+		final AtomicLong left = new AtomicLong(games);
+		ExecutorService  pool = Executors.newFixedThreadPool(threads);
+		try {
+			ArrayList<Future<Results>> futures = new ArrayList<>();
+			long begin = System.nanoTime();
+			for (int t=0; t<threads; t++) {
+				futures.add(pool.submit(new Callable<Results>() {
+					@Override
+					public Results call() {
+						return play(left);
+					}
+				}));
+			}
+			Results total = new Results(level, new Sokoban(level).numBoxes());
+			for (Future<Results> future : futures)
+				total.add(future.get());
+			total.nanos = System.nanoTime() - begin;
+			return total;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SokobanException(""+e);
+		} catch (ExecutionException e) {
+			throw new SokobanException(""+e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Play games on one thread until there are none left
+	 *
+	 * @param left the number of games left to play, shared by the threads
+	 * @return this thread's results
+	 */
+	private Results play(AtomicLong left) {
+		Sokoban puzzle  = new Sokoban(level);
+		Player  player  = factory.newPlayer(puzzle);
+		Results results = new Results(level, puzzle.numBoxes());
+		while (left.getAndDecrement() > 0) {
+			puzzle.clear();
+			int moves = 0;
+			while (!puzzle.onTarget() && (moves < maxMoves)) {
+				int legal = puzzle.legalMoves();
+				if (legal == 0)
+					break;
+				puzzle.move(player.move(legal));
+				moves++;
+			}
+			results.games++;
+			results.moves += moves;
+			if (puzzle.onTarget()) {
+				results.wins++;
+				results.winMoves += moves;
+			} else {
+				if (moves >= maxMoves)
+					results.limited++;
+				else
+					results.stuck++;
+				results.lost[puzzle.numOnTarget()]++;
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Play random games on the screen files given on the command line (all the screens by
+	 * default), reporting the results
+	 *
+	 * @param args [-threads N] [-games N] [-moves N] [screen files...]
+	 */
+	public static void main(String[] args) {
+		int             threads  = Runtime.getRuntime().availableProcessors();
+		long            games    = 100000;
+		int             maxMoves = 1000;
+		ArrayList<File> files    = new ArrayList<>();
+		for (int i=0; i<args.length; i++) {
+			if (args[i].equals("-threads") && (i+1 < args.length))
+				threads = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-games") && (i+1 < args.length))
+				games = Long.parseLong(args[++i]);
+			else if (args[i].equals("-moves") && (i+1 < args.length))
+				maxMoves = Integer.parseInt(args[++i]);
+			else
+				files.add(new File(args[i]));
+		}
+		List<Level> levels = new ArrayList<>();
+		if (files.isEmpty())
+			levels = new LevelLibrary().getLevels();
+		for (File file : files)
+			levels.add(new Level(file.getName(), Sokoban.fileAsString(file)));
+		for (Level level : levels) {
+			PlayoutRunner runner = new PlayoutRunner(level, new PlayerFactory() {
+				@Override
+				public Player newPlayer(Sokoban puzzle) {
+					return new RandomPlayer();
+				}
+			});
+			runner.setThreads(threads);
+			runner.setMaxMoves(maxMoves);
+			System.out.println(runner.run(games));
+		}
+	}
+}
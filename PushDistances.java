@@ -0,0 +1,108 @@
+import java.util.*;
+
+/**
+ * The least number of pushes needed to get a box from each square of a board to each target,
+ * ignoring all the other boxes and where the actor is.
+ *
+ * The distances are found once per level by pulling a box backwards from every target: a box
+ * can be pulled from a square to the next one if that square and the one beyond it (where the
+ * actor steps back to) are not walls.  Only walls are considered, so the distances are lower
+ * bounds, and a square no target can be reached from can never usefully hold a box.
+ *
+ * @version October 2026
+ */
+public class PushDistances {
+	/** The distance for a square from which a target cannot be reached */
+	public static final int INFINITE = Integer.MAX_VALUE / 4;
+
+	private final int[]   targets;
+	private final int[][] distances; // [target][square]
+	private final int[]   nearest;   // distance to the nearest target, by square
+
+	/**
+	 * Constructor (only the walls and targets of the board are used)
+	 *
+	 * @param board the board (cannot be null)
+	 */
+	public PushDistances(Board board) {
+		if (board == null)
+			throw new IllegalArgumentException("board cannot be null");
+		targets   = board.getTargets();
+		distances = new int[targets.length][];
+		nearest   = new int[board.size()];
+		Arrays.fill(nearest, INFINITE);
+		int[] queue = new int[board.size()];
+		for (int t=0; t<targets.length; t++) {
+			int[] dist = new int[board.size()];
+			Arrays.fill(dist, INFINITE);
+			int head = 0;
+			int tail = 0;
+			dist[targets[t]] = 0;
+			queue[tail++]    = targets[t];
+			while (head < tail) {
+				int sq = queue[head++];
+				for (int dir=0; dir<4; dir++) {
+					int off  = board.offset(dir);
+					int prev = sq + off; // box pulled back to here ...
+					if (board.isWall(prev) || board.isWall(prev + off) || (dist[prev] != INFINITE))
+						continue;        // ... by the actor stepping back to prev + off
+					dist[prev]    = dist[sq] + 1;
+					queue[tail++] = prev;
+				}
+			}
+			distances[t] = dist;
+			for (int sq=0; sq<nearest.length; sq++)
+				if (dist[sq] < nearest[sq])
+					nearest[sq] = dist[sq];
+		}
+	}
+
+	/**
+	 * The target squares, in the order used by distance(int, int)
+	 *
+	 * @return the target squares
+	 */
+	public int[] getTargets() {
+		return targets.clone();
+	}
+
+	/**
+	 * Gets the number of targets
+	 *
+	 * @return the number of targets
+	 */
+	public int numTargets() {
+		return targets.length;
+	}
+
+	/**
+	 * The least number of pushes to get a box from a square to a target
+	 *
+	 * @param target the target, as an index into getTargets()
+	 * @param sq the square
+	 * @return the number of pushes (INFINITE if it cannot be done)
+	 */
+	public int distance(int target, int sq) {
+		return distances[target][sq];
+	}
+
+	/**
+	 * The least number of pushes to get a box from a square to the nearest target
+	 *
+	 * @param sq the square
+	 * @return the number of pushes (INFINITE if no target can be reached)
+	 */
+	public int nearest(int sq) {
+		return nearest[sq];
+	}
+
+	/**
+	 * Checks if a box in a square could never be pushed to any target
+	 *
+	 * @param sq the square
+	 * @return is the square dead?
+	 */
+	public boolean isDead(int sq) {
+		return nearest[sq] == INFINITE;
+	}
+}
@@ -0,0 +1,113 @@
+import java.util.*;
+
+/**
+ * Lists the pushes available to the actor of a board: every box next to a square the actor can
+ * reach (see Reachability) that has a free square beyond it.
+ *
+ * A push is coded as an int, the box square times four plus the direction ordinal, so a list of
+ * them needs no objects.  Each push is found from the square the actor pushes from, so none is
+ * listed twice.  Only the rules of the game are applied; a search adds its own pruning.  A push
+ * generator is not thread safe.
+ *
+ * @version October 2026
+ */
+public final class PushGenerator {
+	private final Reachability reach;
+	private int[]              pushes = new int[16];
+	private int                count  = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param size the number of squares of the boards to use (see Board.size())
+	 */
+	public PushGenerator(int size) {
+		reach = new Reachability(size);
+	}
+
+	/**
+	 * Find the pushes available on a board
+	 *
+	 * @param board the board (cannot be null)
+	 * @return the number of pushes
+	 */
+	public int generate(Board board) {
+		reach.fill(board);
+		count = 0;
+		for (int i=0; i<reach.size(); i++) {
+			int sq = reach.getSquare(i);
+			for (int dir=0; dir<4; dir++) {
+				int off = board.offset(dir);
+				if (board.hasBox(sq + off) && board.isFree(sq + off + off)) {
+					if (count == pushes.length)
+						pushes = Arrays.copyOf(pushes, 2 * count);
+					pushes[count++] = ((sq + off) << 2) | dir;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the number of pushes found by the last generate
+	 *
+	 * @return the number of pushes
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Gets a push found by the last generate
+	 *
+	 * @param i the index of the push (starts from 0)
+	 * @return the push
+	 */
+	public int getPush(int i) {
+		if ((i < 0) || (i >= count))
+			throw new IllegalArgumentException("invalid index ("+i+")");
+		return pushes[i];
+	}
+
+	/**
+	 * Gets the reachable squares found by the last generate
+	 *
+	 * @return the reachability (valid until the next generate)
+	 */
+	public Reachability getReachability() {
+		return reach;
+	}
+
+	/**
+	 * Add the moves for a push found by the last generate to a list: the walk to the square
+	 * behind the box, then the push itself
+	 *
+	 * @param board the board the push was found on
+	 * @param push the push
+	 * @param moves the list to add the moves to
+	 */
+	public void path(Board board, int push, List<Direction> moves) {
+		reach.path(box(push) - board.offset(dir(push)), moves);
+		moves.add(Direction.values()[dir(push)]);
+	}
+
+	/**
+	 * The box square of a push
+	 *
+	 * @param push the push
+	 * @return the square of the box pushed
+	 */
+	public static int box(int push) {
+		return push >>> 2;
+	}
+
+	/**
+	 * The direction of a push
+	 *
+	 * @param push the push
+	 * @return the direction, as Direction.ordinal()
+	 */
+	public static int dir(int push) {
+		return push & 3;
+	}
+}
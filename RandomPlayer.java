@@ -33,5 +33,25 @@ public class RandomPlayer implements Player {
 		return choices.get(idx);
 	}
 
+	/**
+	 * Select a random direction from a mask of choices, without building a collection.
+	 * 
+	 * @param legal possible directions, with dir.bit() set for each
+	 * @return a random direction
+	 */
+	@Override
+	public Direction move(int legal) {
+		if ((legal & ~0xf) != 0)
+			throw new IllegalArgumentException("invalid choices");
+		if (legal == 0)
+			throw new IllegalArgumentException("cannot have empty choices");
+		// skip a random number of the set bits
+		for (int skip = rnd.nextInt(Integer.bitCount(legal)); skip > 0; skip--)
+			legal &= legal - 1;
+		return DIRECTIONS[Integer.numberOfTrailingZeros(legal)];
+	}
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
 	private Random rnd = null;
 }
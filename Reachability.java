@@ -0,0 +1,147 @@
+import java.util.*;
+
+/**
+ * The squares of a board the actor can reach without pushing a box, found by a flood fill.
+ *
+ * Besides which squares are reachable, a fill records the normalized actor square (the top-left
+ * reachable square, which stands for the whole region in a search state) and the direction each
+ * square was first reached from, so a shortest walk to any reachable square can be read back.
+ * The arrays are kept between fills and marked with a stamp, so a fill costs only the size of
+ * the region and allocates nothing.  A Reachability is not thread safe.
+ *
+ * @version October 2026
+ */
+public final class Reachability {
+	private final int[]  marks;       // stamp of the last fill that reached each square
+	private final byte[] came;        // direction each square was first reached in
+	private final int[]  queue;       // reached squares, in the order they were reached
+	private int          stamp  = 0;
+	private int          count  = 0;
+	private int          from   = -1;
+	private int          normal = -1;
+	private Board        board  = null;
+
+	/**
+	 * Constructor
+	 *
+	 * @param size the number of squares of the boards to fill (see Board.size())
+	 */
+	public Reachability(int size) {
+		if (size <= 0)
+			throw new IllegalArgumentException("size must be positive");
+		marks = new int[size];
+		came  = new byte[size];
+		queue = new int[size];
+	}
+
+	/**
+	 * Find the squares the actor of a board can reach
+	 *
+	 * @param board the board (cannot be null)
+	 * @return this
+	 */
+	public Reachability fill(Board board) {
+		if (board == null)
+			throw new IllegalArgumentException("board cannot be null");
+		return fill(board, board.getActor());
+	}
+
+	/**
+	 * Find the squares that can be reached from a square of a board without pushing
+	 *
+	 * @param board the board (cannot be null)
+	 * @param start the square to start from
+	 * @return this
+	 */
+	public Reachability fill(Board board, int start) {
+		if (board == null)
+			throw new IllegalArgumentException("board cannot be null");
+		if (board.size() > marks.length)
+			throw new IllegalArgumentException("board is too large");
+		if (++stamp == 0) {
+			Arrays.fill(marks, 0);
+			stamp = 1;
+		}
+		this.board = board;
+		this.from  = start;
+		int head = 0;
+		int tail = 0;
+		int best = start;
+		marks[start]  = stamp;
+		queue[tail++] = start;
+		while (head < tail) {
+			int sq = queue[head++];
+			if (sq < best)
+				best = sq;
+			for (int dir=0; dir<4; dir++) {
+				int next = sq + board.offset(dir);
+				if (board.isFree(next) && (marks[next] != stamp)) {
+					marks[next]   = stamp;
+					came[next]    = (byte) dir;
+					queue[tail++] = next;
+				}
+			}
+		}
+		count  = tail;
+		normal = best;
+		return this;
+	}
+
+	/**
+	 * Could the actor reach a square in the last fill?
+	 *
+	 * @param sq the square
+	 * @return is the square reachable?
+	 */
+	public boolean isReachable(int sq) {
+		return marks[sq] == stamp;
+	}
+
+	/**
+	 * Gets the top-left reachable square (lowest row, then lowest column) of the last fill
+	 *
+	 * @return the normalized actor square
+	 */
+	public int getNormal() {
+		return normal;
+	}
+
+	/**
+	 * Gets the number of reachable squares in the last fill
+	 *
+	 * @return the number of squares
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Gets a reachable square of the last fill (they are in order of distance from the start)
+	 *
+	 * @param i the index of the square (starts from 0)
+	 * @return the square
+	 */
+	public int getSquare(int i) {
+		if ((i < 0) || (i >= count))
+			throw new IllegalArgumentException("invalid index ("+i+")");
+		return queue[i];
+	}
+
+	/**
+	 * Add a shortest walk from the start of the last fill to a reachable square to a list
+	 *
+	 * @param to the square to walk to (must be reachable)
+	 * @param moves the list to add the steps to
+	 * @return the number of steps added
+	 */
+	public int path(int to, List<Direction> moves) {
+		if (!isReachable(to))
+			throw new SokobanException("cannot walk to square "+to);
+		Direction[] values = Direction.values();
+		int         first  = moves.size();
+		for (int sq = to; sq != from; sq -= board.offset(came[sq]))
+			moves.add(values[came[sq]]);
+		Collections.reverse(moves.subList(first, moves.size()));
+		return moves.size() - first;
+	}
+}
@@ -0,0 +1,403 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary saved games, and an append-only journal for autosaving.
+ *
+ * A saved game is an image of the puzzle: a header (magic number, version and the level's
+ * checksum), a snapshot of the board (the actor cell and a bitset of the box cells), then the
+ * move history and the undone moves, each packed two bits per direction plus one bit per move
+ * for whether it pushed, and a CRC32 of all of that.  Loading restores the snapshot directly,
+ * with the history ready to undo, so no moves are replayed.
+ *
+ * A journal is an image followed by one byte per move, undo or redo, appended as they happen (a
+ * batch of moves made together is written in one go).  The bytes are written straight away but
+ * only forced to the disk every SYNC_RECORDS records or SYNC_MILLIS milliseconds, so each move
+ * costs one small write.  When the puzzle is reset, or the records get too many, the journal is
+ * rewritten as a fresh image, so loading never has to replay more than COMPACT_RECORDS records.
+ * A journal is loaded in the same way as a saved game.  The text files of direction names that
+ * earlier versions saved can still be loaded (loadText).
+ *
+ * @version October 2026
+ */
+public final class SaveGame {
+	private static final int   MAGIC           = 0x534f4b42; // "SOKB"
+	private static final short VERSION         = 1;
+	private static final int   SYNC_RECORDS    = 64;
+	private static final long  SYNC_MILLIS     = 1000;
+	private static final int   COMPACT_RECORDS = 4096;
+	// journal records: bits 0-1 direction ordinal, bit 2 push, bits 3-4 kind
+	private static final int   PUSH            = 1 << 2;
+	private static final int   UNDO            = 1 << 3;
+	private static final int   REDO            = 2 << 3;
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	private SaveGame() {
+	}
+
+	/**
+	 * Save a puzzle to a file, replacing it
+	 *
+	 * @param puzzle the puzzle (cannot be null)
+	 * @param file the file (cannot be null)
+	 */
+	public static void save(Sokoban puzzle, File file) {
+		if ((puzzle == null) || (file == null))
+			throw new IllegalArgumentException("puzzle and file cannot be null");
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write(image(puzzle));
+		} catch (IOException e) {
+			throw new SokobanException(""+e);
+		}
+	}
+
+	/**
+	 * Load a saved game or journal into a puzzle of the same level
+	 *
+	 * @param puzzle the puzzle (cannot be null)
+	 * @param file the file (cannot be null)
+	 */
+	public static void load(Sokoban puzzle, File file) {
+		if ((puzzle == null) || (file == null))
+			throw new IllegalArgumentException("puzzle and file cannot be null");
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(file.toPath());
+		} catch (IOException e) {
+			throw new SokobanException(""+e);
+		}
+		try {
+			ByteBuffer buf = ByteBuffer.wrap(bytes);
+			Level      level = puzzle.getLevel();
+			if ((buf.getInt() != MAGIC) || (buf.getShort() != VERSION))
+				throw new SokobanException(file+" is not a saved game");
+			if ((buf.getLong() != level.getChecksum()) || (buf.getInt() != level.getNumRows()) ||
+					(buf.getInt() != level.getNumCols()))
+				throw new SokobanException(file+" is for a different level");
+			int    actor = buf.getInt();
+			long[] boxes = new long[(level.getNumRows() * level.getNumCols() + 63) / 64];
+			for (int w=0; w<boxes.length; w++)
+				boxes[w] = buf.getLong();
+			List<Move> moves = unpack(buf);
+			List<Move> redo  = unpack(buf);
+			CRC32      crc   = new CRC32();
+			crc.update(bytes, 0, buf.position());
+			if (buf.getInt() != (int) crc.getValue())
+				throw new SokobanException(file+" is damaged");
+			puzzle.restore(Sokoban.Snapshot.of(level, boxes, actor), moves, redo);
+			// then replay any journal records
+			while (buf.hasRemaining())
+				replay(puzzle, buf.get() & 0xff);
+		} catch (BufferUnderflowException e) {
+			throw new SokobanException(file+" is damaged");
+		} catch (IllegalArgumentException | IllegalStateException e) {
+			throw new SokobanException(file+" does not fit the level: "+e.getMessage());
+		}
+	}
+
+	/**
+	 * Load a game saved by earlier versions as a text file of direction names, one per line,
+	 * by replaying the moves from the start.  Either all of them are made or none are.
+	 *
+	 * @param puzzle the puzzle (cannot be null)
+	 * @param file the file (cannot be null)
+	 */
+	public static void loadText(Sokoban puzzle, File file) {
+		if ((puzzle == null) || (file == null))
+			throw new IllegalArgumentException("puzzle and file cannot be null");
+		ArrayList<Direction> dirs = new ArrayList<>();
+		try (Scanner in = new Scanner(file)) {
+			while (in.hasNextLine()) {
+				String line = in.nextLine().trim();
+				if (!line.isEmpty())
+					dirs.add(Direction.valueOf(line));
+			}
+		} catch (IOException e) {
+			throw new SokobanException(""+e);
+		} catch (IllegalArgumentException e) {
+			throw new SokobanException(file+" is not a saved game");
+		}
+		Sokoban.Snapshot before = puzzle.snapshot();
+		puzzle.clear();
+		if (!puzzle.move(dirs)) {
+			puzzle.restore(before);
+			throw new SokobanException(file+" does not fit the level");
+		}
+	}
+
+	/**
+	 * Replay a journal record
+	 *
+	 * @param puzzle the puzzle
+	 * @param record the record
+	 */
+	private static void replay(Sokoban puzzle, int record) {
+		Direction dir  = DIRECTIONS[record & 3];
+		boolean   push = (record & PUSH) != 0;
+		int       kind = record & ~(3 | PUSH);
+		Move      made;
+		if (kind == 0) {
+			puzzle.move(dir);
+			made = lastMove(puzzle);
+		} else if ((kind == UNDO) && puzzle.canUndo()) {
+			made = lastMove(puzzle);
+			puzzle.undo();
+		} else if ((kind == REDO) && puzzle.canRedo()) {
+			puzzle.redo();
+			made = lastMove(puzzle);
+		} else {
+			throw new IllegalStateException("bad journal record");
+		}
+		if ((made.getDirection() != dir) || (made.isPush() != push))
+			throw new IllegalStateException("journal does not match the moves");
+	}
+
+	/**
+	 * The last move in a puzzle's history
+	 *
+	 * @param puzzle the puzzle (must have a move to undo)
+	 * @return the move
+	 */
+	private static Move lastMove(Sokoban puzzle) {
+		List<Move> history = puzzle.getHistory();
+		return history.get(history.size()-1);
+	}
+
+	/**
+	 * The image of a puzzle: header, snapshot, packed history and undone moves, and CRC32
+	 *
+	 * @param puzzle the puzzle
+	 * @return the image
+	 */
+	private static byte[] image(Sokoban puzzle) {
+		Level            level    = puzzle.getLevel();
+		Sokoban.Snapshot snapshot = puzzle.snapshot();
+		List<Move>       moves    = puzzle.getHistory();
+		List<Move>       redo     = puzzle.getUndone();
+		long[]           boxes    = snapshot.getBoxes();
+		ByteBuffer       buf      = ByteBuffer.allocate(4 + 2 + 8 + 4 + 4 + 4 + 8 * boxes.length +
+				packedSize(moves.size()) + packedSize(redo.size()) + 4);
+		buf.putInt(MAGIC).putShort(VERSION).putLong(level.getChecksum());
+		buf.putInt(level.getNumRows()).putInt(level.getNumCols()).putInt(snapshot.getActor());
+		for (long word : boxes)
+			buf.putLong(word);
+		pack(moves, buf);
+		pack(redo, buf);
+		CRC32 crc = new CRC32();
+		crc.update(buf.array(), 0, buf.position());
+		buf.putInt((int) crc.getValue());
+		return buf.array();
+	}
+
+	/**
+	 * The number of bytes a list of moves takes when packed
+	 *
+	 * @param n the number of moves
+	 * @return the number of bytes
+	 */
+	private static int packedSize(int n) {
+		return 4 + (n + 3) / 4 + (n + 7) / 8;
+	}
+
+	/**
+	 * Write a list of moves: the count, then two bits per direction, then one bit per push
+	 *
+	 * @param moves the moves
+	 * @param buf where to write them
+	 */
+	private static void pack(List<Move> moves, ByteBuffer buf) {
+		int    n      = moves.size();
+		byte[] dirs   = new byte[(n + 3) / 4];
+		byte[] pushes = new byte[(n + 7) / 8];
+		for (int i=0; i<n; i++) {
+			Move move = moves.get(i);
+			dirs[i >> 2] |= move.getDirection().ordinal() << ((i & 3) << 1);
+			if (move.isPush())
+				pushes[i >> 3] |= 1 << (i & 7);
+		}
+		buf.putInt(n).put(dirs).put(pushes);
+	}
+
+	/**
+	 * Read a list of moves written by pack
+	 *
+	 * @param buf where to read them from
+	 * @return the moves
+	 */
+	private static List<Move> unpack(ByteBuffer buf) {
+		int n = buf.getInt();
+		if ((n < 0) || (packedSize(n) - 4 > buf.remaining()))
+			throw new BufferUnderflowException();
+		byte[] dirs   = new byte[(n + 3) / 4];
+		byte[] pushes = new byte[(n + 7) / 8];
+		buf.get(dirs).get(pushes);
+		ArrayList<Move> moves = new ArrayList<>(n);
+		for (int i=0; i<n; i++) {
+			Direction dir  = DIRECTIONS[(dirs[i >> 2] >> ((i & 3) << 1)) & 3];
+			boolean   push = (pushes[i >> 3] & (1 << (i & 7))) != 0;
+			moves.add(Move.getInstance(dir, push));
+		}
+		return moves;
+	}
+
+	/**
+	 * An autosave journal for a puzzle.  It starts with an image of the puzzle as it is, then
+	 * listens to the puzzle and appends a record for every move, undo and redo.  It must be
+	 * closed when finished with, to force the last records to the disk.  If the journal cannot
+	 * be written once it has started, it says so on System.err and stops, rather than fail the
+	 * move that was being recorded (which has already been made).
+	 */
+	public static final class Journal implements SokobanListener, Closeable {
+		private final Sokoban    puzzle;
+		private final Path       path;
+		private ByteBuffer       record   = ByteBuffer.allocate(64);
+		private FileChannel      channel  = null;
+		private int              records  = 0; // since the image
+		private int              unsynced = 0;
+		private long             lastSync = 0;
+
+		/**
+		 * Start a journal for a puzzle, replacing the file
+		 *
+		 * @param puzzle the puzzle (cannot be null)
+		 * @param file the file (cannot be null)
+		 */
+		public Journal(Sokoban puzzle, File file) {
+			if ((puzzle == null) || (file == null))
+				throw new IllegalArgumentException("puzzle and file cannot be null");
+			this.puzzle = puzzle;
+			this.path   = file.toPath();
+			try {
+				rewrite();
+			} catch (IOException e) {
+				throw new SokobanException(""+e);
+			}
+			puzzle.addSokobanListener(this);
+		}
+
+		@Override
+		public void changed(SokobanEvent event) {
+			try {
+				if (event.getType() == SokobanEvent.Type.RESET) {
+					rewrite();
+					return;
+				}
+				int kind = 0;
+				if (event.getType() == SokobanEvent.Type.UNDO)
+					kind = UNDO;
+				else if (event.getType() == SokobanEvent.Type.REDO)
+					kind = REDO;
+				records += event.getMoves().size();
+				if (records > COMPACT_RECORDS) {
+					rewrite();
+					return;
+				}
+				record.clear();
+				if (record.capacity() < event.getMoves().size())
+					record = ByteBuffer.allocate(event.getMoves().size());
+				for (Move move : event.getMoves())
+					record.put((byte) (move.getDirection().ordinal() | (move.isPush() ? PUSH : 0) | kind));
+				record.flip();
+				while (record.hasRemaining())
+					channel.write(record);
+				unsynced += event.getMoves().size();
+				if ((unsynced >= SYNC_RECORDS) || (System.currentTimeMillis() - lastSync >= SYNC_MILLIS))
+					force();
+			} catch (IOException e) {
+				stop(e);
+			}
+		}
+
+		/**
+		 * Force the records written so far to the disk
+		 */
+		public void sync() {
+			if (channel == null)
+				return;
+			try {
+				force();
+			} catch (IOException e) {
+				throw new SokobanException(""+e);
+			}
+		}
+
+		/**
+		 * Force the records written so far to the disk
+		 *
+		 * @throws IOException if they could not be written
+		 */
+		private void force() throws IOException {
+			channel.force(false);
+			unsynced = 0;
+			lastSync = System.currentTimeMillis();
+		}
+
+		/**
+		 * Replace the journal with a fresh image of the puzzle (written to a temporary file
+		 * first, so there is always a whole journal on the disk)
+		 *
+		 * @throws IOException if the image could not be written
+		 */
+		private void rewrite() throws IOException {
+			Path tmp = path.resolveSibling(path.getFileName()+".tmp");
+			if (channel != null) {
+				channel.close();
+				channel = null;
+			}
+			try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				out.write(ByteBuffer.wrap(image(puzzle)));
+				out.force(false);
+			}
+			try {
+				Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+			channel  = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			records  = 0;
+			unsynced = 0;
+			lastSync = System.currentTimeMillis();
+		}
+
+		/**
+		 * Give up on the journal after a write failed: say so, and stop listening
+		 *
+		 * @param e the failure
+		 */
+		private void stop(IOException e) {
+			System.err.println("autosave to "+path+" stopped: "+e);
+			puzzle.removeSokobanListener(this);
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException ignored) {
+					// already failed
+				}
+				channel = null;
+			}
+		}
+
+		/**
+		 * Stop listening, and force the last records to the disk
+		 */
+		@Override
+		public void close() {
+			puzzle.removeSokobanListener(this);
+			if (channel == null)
+				return;
+			sync();
+			try {
+				channel.close();
+			} catch (IOException e) {
+				throw new SokobanException(""+e);
+			}
+			channel = null;
+		}
+	}
+}
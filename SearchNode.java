@@ -0,0 +1,101 @@
+import java.util.*;
+
+/**
+ * A node in a push-level search: the box squares (in increasing order), the normalized actor
+ * square, where the actor actually stands after the push that led here, and how it got here.
+ * Nodes are equal if their states (boxes and normalized actor) are equal.
+ *
+ * @version October 2026
+ */
+final class SearchNode {
+	final int[]      boxes;
+	final int        actor;   // actual actor square
+	final int        normal;  // normalized actor square
+	final long       hash;    // Zobrist key of the state
+	final int        g;       // pushes so far
+	final int        h;       // lower bound on the pushes to go
+	final int        dir;     // direction of the push that led here (-1 for the start)
+	final SearchNode parent;
+
+	/**
+	 * Constructor
+	 *
+	 * @param boxes the box squares, in increasing order
+	 * @param actor the actual actor square
+	 * @param normal the normalized actor square
+	 * @param hash the Zobrist key of the state
+	 * @param g the pushes so far
+	 * @param h the lower bound on the pushes to go
+	 * @param dir the direction of the push that led here (-1 for the start)
+	 * @param parent the node the push was made from (null for the start)
+	 */
+	SearchNode(int[] boxes, int actor, int normal, long hash, int g, int h, int dir, SearchNode parent) {
+		this.boxes  = boxes;
+		this.actor  = actor;
+		this.normal = normal;
+		this.hash   = hash;
+		this.g      = g;
+		this.h      = h;
+		this.dir    = dir;
+		this.parent = parent;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof SearchNode))
+			return false;
+		SearchNode other = (SearchNode) obj;
+		return (hash == other.hash) && (normal == other.normal) && Arrays.equals(boxes, other.boxes);
+	}
+
+	/**
+	 * A 32-bit check of the state, to go with its Zobrist key in a TranspositionTable
+	 *
+	 * @return the check
+	 */
+	int check() {
+		return TranspositionTable.check(boxes, normal);
+	}
+
+	/**
+	 * Turn the pushes leading to this node into a complete list of moves
+	 *
+	 * @param start the position the search started from
+	 * @return the moves
+	 */
+	Vector<Direction> toMoves(Board start) {
+		ArrayList<SearchNode> path = new ArrayList<>();
+		for (SearchNode node = this; node.parent != null; node = node.parent)
+			path.add(node);
+		Collections.reverse(path);
+		Board             replay = new Board(start);
+		Reachability      reach  = new Reachability(replay.size());
+		Vector<Direction> moves  = new Vector<>();
+		for (SearchNode node : path) {
+			walk(replay, reach, node.actor - replay.offset(node.dir), moves);
+			replay.move(node.dir);
+			moves.add(Direction.values()[node.dir]);
+		}
+		return moves;
+	}
+
+	/**
+	 * Walk the actor to a square along a shortest path, without pushing
+	 *
+	 * @param replay the board to walk on
+	 * @param reach the reachability to find the path with
+	 * @param to the square to walk to (must be reachable)
+	 * @param moves the list to add the steps to
+	 */
+	static void walk(Board replay, Reachability reach, int to, List<Direction> moves) {
+		int first = moves.size();
+		reach.fill(replay).path(to, moves);
+		for (int i=first; i<moves.size(); i++)
+			replay.move(moves.get(i));
+	}
+}
@@ -1,5 +1,3 @@
- 
-
 import java.io.*;
 import java.util.*;
 
@@ -9,8 +7,7 @@ import java.util.*;
  * @author Dr Mark C. Sinclair
  * @version September 2021
  */
-@SuppressWarnings("deprecation")
-public class Sokoban extends Observable {
+public class Sokoban {
     
     	public static final char WALL         = '#';
 	public static final char BOX          = '$';
@@ -24,9 +21,34 @@ public class Sokoban extends Observable {
 	private int      numCols     = 0;
 	private Cell     actorCell   = null;
 	private Cell[][] cells       = null;
-	private String   startScreen = null;
+	private Level    level       = null; // the parsed screen the puzzle was made from
+	private int      numTargets  = 0;
+	private int      numBoxes    = 0;
+	private int      numActors   = 0;
+	private int      numOnTarget = 0;
+	private ArrayList<Move> history = new ArrayList<>(); // moves made, for undo
+	private ArrayList<Move> undone  = new ArrayList<>(); // moves undone, for redo
+	private BitSet   deadCells   = null; // cells from which no box can ever reach a target (shared with the level)
+	private Zobrist  zobrist     = null;
+	private long     boxHash     = 0;    // Zobrist key of the boxes
+	private long[]   boxBits     = null; // bitset of the box cells by row*numCols+col
+	private Occupant[] spareBoxes = null; // boxes lifted off the board by restore
+	private Snapshot start       = null; // the starting state, for clear
+	private Cell     normalCell  = null; // top-left cell the actor can reach (null if not yet found)
+	private int[]    reachQueue  = null;
+	private int[]    reachMarks  = null;
+	private int      reachStamp  = 0;
+	private long[]   frozen      = null; // bitset by row*numCols+col, reused by isFreezeSafe
+	private int[]    cluster     = null; // the boxes isFreezeSafe is looking at
+	private DeadlockDetector deadlocks = null; // made when first needed by isCorralSafe
+	private SokobanListener[] listeners = new SokobanListener[0]; // copied on change, so safe to walk while firing
+	private Cell[]   dirty       = null; // cells changed by the current operation (only kept if anyone listens)
+	private int      numDirty    = 0;
+	private int[]    dirtyMarks  = null; // operation stamp of the cells in dirty, so each is listed once
+	private int      dirtyStamp  = 1;
 	
-	private static final boolean traceOn = false; // for debugging
+	private static final boolean     traceOn    = false; // for debugging
+	private static final Direction[] DIRECTIONS = Direction.values();
 	/**
 	 * Construct a Sokoban puzzle from a standard Sokoban screen file
 	 * 
@@ -42,33 +64,122 @@ public class Sokoban extends Observable {
 	 * @param screen the screen file as a String
 	 */
 	public Sokoban(String screen) {
-		if (screen == null)
-			throw new IllegalArgumentException("screen cannot be null");
-		startScreen            = screen;
-		Scanner           scnr = null;
-		ArrayList<String> lines = new ArrayList<>();
-		scnr = new Scanner(screen);
-		while (scnr.hasNextLine()) {
-			String line = scnr.nextLine();
-			if (line.length() > 0) {
-				lines.add(line);
-				numRows++;
-				if (line.length() > numCols)
-					numCols = line.length();
-			}
-		}
-		scnr.close();
-		cells = new Cell[numRows][numCols];
+		this(new Level(screen));
+	}
+
+	/**
+	 * Construct a Sokoban puzzle from a parsed level, with no I/O or parsing
+	 * 
+	 * @param level the level (cannot be null)
+	 */
+	public Sokoban(Level level) {
+		if (level == null)
+			throw new IllegalArgumentException("level cannot be null");
+		this.level  = level;
+		numRows     = level.getNumRows();
+		numCols     = level.getNumCols();
+		zobrist     = level.getZobrist();
+		reachQueue  = new int[numRows * numCols];
+		reachMarks  = new int[numRows * numCols];
+		frozen      = new long[(numRows * numCols + 63) / 64];
+		cluster     = new int[numRows * numCols];
+		boxBits     = new long[(numRows * numCols + 63) / 64];
+		dirty       = new Cell[numRows * numCols];
+		dirtyMarks  = new int[numRows * numCols];
+		cells       = new Cell[numRows][numCols];
 		for (int row=0; row<numRows; row++) {
-			String line = lines.get(row);
 			for (int col=0; col<numCols; col++) {
-				char display = (col < line.length()) ? line.charAt(col) : Sokoban.EMPTY;
+				char display = level.getDisplay(row, col);
 				cells[row][col] = new Cell(display, this, row, col);
 				if (display == ACTOR || display == TARGET_ACTOR)
 					actorCell = cells[row][col];
+				count(cells[row][col], 1);
 			}
 		}
+		deadCells  = level.getDeadCells();
+		spareBoxes = new Occupant[numBoxes];
 		checkValid();
+		start = snapshot();
+	}
+
+	/**
+	 * A compact, immutable copy of the state of a puzzle: the box cells as a bitset and the
+	 * actor cell.  Walls and targets never change, so they are left to the level.  A snapshot can
+	 * be restored to any puzzle made from the same level.
+	 */
+	public static final class Snapshot {
+		private final Level  level;
+		private final long[] boxes; // bitset by row*numCols+col
+		private final int    actor; // row*numCols+col
+
+		private Snapshot(Level level, long[] boxes, int actor) {
+			this.level = level;
+			this.boxes = boxes;
+			this.actor = actor;
+		}
+
+		/**
+		 * Gets the level the snapshot was taken in
+		 * 
+		 * @return the level
+		 */
+		public Level getLevel() {
+			return level;
+		}
+
+		/**
+		 * Gets the box cells (the array must not be changed)
+		 * 
+		 * @return a bitset of the box cells, by row*numCols+col
+		 */
+		long[] getBoxes() {
+			return boxes;
+		}
+
+		/**
+		 * Gets the actor cell
+		 * 
+		 * @return the actor cell, as row*numCols+col
+		 */
+		int getActor() {
+			return actor;
+		}
+
+		/**
+		 * Make a snapshot from its parts (as read back from a file), checking that it is a
+		 * possible state of the level: the right number of boxes, and nothing on a wall
+		 * 
+		 * @param level the level
+		 * @param boxes a bitset of the box cells, by row*numCols+col
+		 * @param actor the actor cell, as row*numCols+col
+		 * @return the snapshot
+		 */
+		static Snapshot of(Level level, long[] boxes, int actor) {
+			if ((level == null) || (boxes == null))
+				throw new IllegalArgumentException("level and boxes cannot be null");
+			int numCols = level.getNumCols();
+			int size    = level.getNumRows() * numCols;
+			if ((boxes.length != (size + 63) / 64) || (actor < 0) || (actor >= size))
+				throw new IllegalArgumentException("snapshot does not fit the level");
+			int expected = 0;
+			int found    = 0;
+			for (int idx=0; idx<size; idx++) {
+				char    display = level.getDisplay(idx / numCols, idx % numCols);
+				boolean box     = (boxes[idx >> 6] & (1L << idx)) != 0;
+				if ((display == BOX) || (display == TARGET_BOX))
+					expected++;
+				if (box)
+					found++;
+				if ((display == WALL) && (box || (idx == actor)))
+					throw new IllegalArgumentException("snapshot has a box or the actor on a wall");
+			}
+			for (int idx=size; idx<boxes.length*64; idx++)
+				if ((boxes[idx >> 6] & (1L << idx)) != 0)
+					found++;
+			if ((found != expected) || ((boxes[actor >> 6] & (1L << actor)) != 0))
+				throw new IllegalArgumentException("snapshot does not fit the level");
+			return new Snapshot(level, boxes.clone(), actor);
+		}
 	}
 
 	/**
@@ -84,34 +195,195 @@ public class Sokoban extends Observable {
 	 * Reset to the starting state
 	 */
 	public void clear() {
-		if (startScreen == null)
-			throw new IllegalStateException("startScreen cannot be null");
-		Scanner           scnr = null;
-		ArrayList<String> lines = new ArrayList<>();
-		scnr = new Scanner(startScreen);
-		while (scnr.hasNextLine()) {
-			String line = scnr.nextLine();
-			if (line.length() > 0)
-				lines.add(line);
+		restore(start);
+	}
+
+	/**
+	 * Take a snapshot of the current state (the move history is not included)
+	 * 
+	 * @return the snapshot
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(level, boxBits.clone(), actorCell.getRow() * numCols + actorCell.getCol());
+	}
+
+	/**
+	 * Go back to the state in a snapshot.  Only the cells that differ are touched: the box
+	 * bitsets are compared a word at a time, and the boxes and actor already on the board are
+	 * moved rather than made again.  The move history is cleared.
+	 * 
+	 * @param snapshot the snapshot (must be from a puzzle of the same level)
+	 */
+	public void restore(Snapshot snapshot) {
+		place(snapshot);
+		fire(SokobanEvent.Type.RESET, (Move[]) null);
+	}
+
+	/**
+	 * Go back to the state in a snapshot, with a move history that leads to it (as read back
+	 * from a saved game, so that the moves can still be undone and redone without replaying).
+	 * Listeners are told once the history is in place.
+	 * 
+	 * @param snapshot the snapshot (must be from a puzzle of the same level)
+	 * @param moves the moves from the start that lead to the snapshot
+	 * @param redo the undone moves that can be redone (the last is redone first)
+	 */
+	void restore(Snapshot snapshot, List<Move> moves, List<Move> redo) {
+		if ((moves == null) || (redo == null))
+			throw new IllegalArgumentException("moves and redo cannot be null");
+		place(snapshot);
+		history.addAll(moves);
+		undone.addAll(redo);
+		fire(SokobanEvent.Type.RESET, (Move[]) null);
+	}
+
+	/**
+	 * Go back to the state in a snapshot, clearing the move history, without telling the
+	 * listeners
+	 * 
+	 * @param snapshot the snapshot (must be from a puzzle of the same level)
+	 */
+	private void place(Snapshot snapshot) {
+		if (snapshot == null)
+			throw new IllegalArgumentException("snapshot cannot be null");
+		if (snapshot.level != level)
+			throw new IllegalArgumentException("snapshot is from a different level");
+		// lift the actor, then the boxes that are not in the snapshot
+		Cell     oldActorCell = actorCell;
+		Cell     newActorCell = cells[snapshot.actor / numCols][snapshot.actor % numCols];
+		boolean  newWasBox    = newActorCell.hasBox(); // if so, it is marked dirty when the box is lifted
+		Occupant actor        = oldActorCell.getOccupant();
+		count(oldActorCell, -1);
+		oldActorCell.setOccupant(null);
+		count(oldActorCell, 1);
+		int lifted = 0;
+		for (int w=0; w<boxBits.length; w++) {
+			long gone = boxBits[w] & ~snapshot.boxes[w];
+			while (gone != 0) {
+				int  idx  = (w << 6) + Long.numberOfTrailingZeros(gone);
+				Cell cell = cells[idx / numCols][idx % numCols];
+				gone &= gone - 1;
+				spareBoxes[lifted++] = cell.getOccupant();
+				count(cell, -1);
+				cell.setOccupant(null);
+				count(cell, 1);
+				changed(cell);
+			}
 		}
-		scnr.close();
-		for (int row=0; row<numRows; row++) {
-			String line = lines.get(row);
-			for (int col=0; col<numCols; col++) {
-				char display = (col < line.length()) ? line.charAt(col) : Sokoban.EMPTY;
-				if (cells[row][col].getDisplay() != display) {
-					cells[row][col].setDisplay(display);
-					if (display == ACTOR || display == TARGET_ACTOR)
-						actorCell = cells[row][col];
-					trace("clear: changing display in ("+row+","+col+")");
-					setChanged();
-					notifyObservers(cells[row][col]);
-				}
+		// put them down where the snapshot has boxes that are missing
+		for (int w=0; w<boxBits.length; w++) {
+			long added = snapshot.boxes[w] & ~boxBits[w];
+			while (added != 0) {
+				int  idx  = (w << 6) + Long.numberOfTrailingZeros(added);
+				Cell cell = cells[idx / numCols][idx % numCols];
+				added &= added - 1;
+				count(cell, -1);
+				cell.setOccupant(spareBoxes[--lifted]);
+				count(cell, 1);
+				spareBoxes[lifted] = null;
+				changed(cell);
 			}
 		}
+		actorCell = newActorCell;
+		count(actorCell, -1);
+		actorCell.setOccupant(actor);
+		count(actorCell, 1);
+		if (actorCell != oldActorCell) {
+			if (!oldActorCell.hasBox()) // otherwise marked when the box was put down
+				changed(oldActorCell);
+			if (!newWasBox)
+				changed(actorCell);
+		}
+		history.clear();
+		undone.clear();
+		normalCell = null;
 		checkValid();
 	}
 
+	/**
+	 * Add a listener, to be told of every change to the puzzle
+	 * 
+	 * @param listener the listener (cannot be null)
+	 */
+	public void addSokobanListener(SokobanListener listener) {
+		if (listener == null)
+			throw new IllegalArgumentException("listener cannot be null");
+		SokobanListener[] more = Arrays.copyOf(listeners, listeners.length + 1);
+		more[listeners.length] = listener;
+		listeners = more;
+	}
+
+	/**
+	 * Remove a listener (if it was added)
+	 * 
+	 * @param listener the listener
+	 */
+	public void removeSokobanListener(SokobanListener listener) {
+		for (int i=0; i<listeners.length; i++) {
+			if (listeners[i] == listener) {
+				SokobanListener[] fewer = new SokobanListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, fewer, 0, i);
+				System.arraycopy(listeners, i+1, fewer, i, fewer.length - i);
+				listeners = fewer;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Note that a cell has been changed by the current operation (each cell is kept once).
+	 * Nothing is kept if no one is listening.
+	 * 
+	 * @param cell the cell
+	 */
+	private void changed(Cell cell) {
+		if (listeners.length == 0)
+			return;
+		int idx = cell.getRow() * numCols + cell.getCol();
+		if (dirtyMarks[idx] != dirtyStamp) {
+			dirtyMarks[idx]   = dirtyStamp;
+			dirty[numDirty++] = cell;
+		}
+	}
+
+	/**
+	 * Forget the cells changed by the current operation
+	 */
+	private void forgetChanged() {
+		Arrays.fill(dirty, 0, numDirty, null);
+		numDirty = 0;
+		if (++dirtyStamp == 0) {
+			Arrays.fill(dirtyMarks, 0);
+			dirtyStamp = 1;
+		}
+	}
+
+	/**
+	 * Tell the listeners about a single move, undo or redo and the cells it changed
+	 * 
+	 * @param type the operation
+	 * @param move the move made, undone or redone
+	 */
+	private void fire(SokobanEvent.Type type, Move move) {
+		if (listeners.length != 0)
+			fire(type, new Move[] { move });
+	}
+
+	/**
+	 * Tell the listeners about the current operation and the cells it changed
+	 * 
+	 * @param type the operation
+	 * @param moves the moves made, undone or redone, in order (null for RESET)
+	 */
+	private void fire(SokobanEvent.Type type, Move[] moves) {
+		if (listeners.length == 0)
+			return;
+		SokobanEvent event = new SokobanEvent(this, type, moves, Arrays.copyOf(dirty, numDirty));
+		forgetChanged();
+		for (SokobanListener listener : listeners)
+			listener.changed(event);
+	}
+
 	/**
 	 * Gets the number of cell rows
 	 * 
@@ -144,6 +416,154 @@ public class Sokoban extends Observable {
 		return cells[row][col];
 	}
 	
+	/**
+	 * Gets the level the puzzle was made from
+	 * 
+	 * @return the level
+	 */
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * If the actor moved in a given direction, would every corral (squares the actor could not
+	 * reach, fenced in by boxes) it left still be possible to clear?  Only a push can close a
+	 * corral.  The check is made on a Board of the position by a DeadlockDetector, which is made
+	 * the first time it is needed; it costs far more than canMove, so it is not part of it.
+	 * 
+	 * @param dir the direction to move (the move must be allowed)
+	 * @return would the move leave no corral deadlock?
+	 */
+	public boolean isCorralSafe(Direction dir) {
+		if (!canMove(dir))
+			throw new IllegalArgumentException("cannot move "+dir);
+		if (!actorCell.getCell(dir).hasBox())
+			return true;
+		Board board = new Board(level);
+		for (int box : board.getBoxes())
+			board.removeBox(box);
+		board.setActor(board.index(actorCell.getRow(), actorCell.getCol()));
+		for (int idx=0; idx<numRows*numCols; idx++)
+			if (getBit(boxBits, idx))
+				board.addBox(board.index(idx / numCols, idx % numCols));
+		board.move(dir);
+		if (deadlocks == null)
+			deadlocks = new DeadlockDetector(board, new PushDistances(board));
+		return !deadlocks.isCorralDeadlock(board);
+	}
+
+	/**
+	 * Checks if a box in a cell could never be pushed to any target
+	 * 
+	 * @param row row number (starts from 0)
+	 * @param col column number (starts from 0)
+	 * @return is the cell dead?
+	 */
+	boolean isDeadCell(int row, int col) {
+		return deadCells.get(row * numCols + col);
+	}
+
+	/**
+	 * If the box in a cell was pushed to the next cell in a given direction, would every box left
+	 * frozen (unable ever to move again) be on a target?
+	 * 
+	 * Only the pushed box and the boxes touching it, directly or through other boxes, can be
+	 * affected.  They all start out assumed frozen; then any box that could slide along either
+	 * axis is freed, until nothing changes.  A box can slide along an axis unless there is a
+	 * wall or a frozen box on either side of it, or both sides are dead cells.  The check is
+	 * iterative and uses only arrays kept by the puzzle, so it allocates nothing.
+	 * 
+	 * @param from the cell holding the box (cannot be null)
+	 * @param dir the direction to push
+	 * @return would the push be clear of freezing with a box left off target?
+	 */
+	boolean isFreezeSafe(Cell from, Direction dir) {
+		if (from == null)
+			throw new IllegalArgumentException("from cannot be null");
+		Cell to      = from.getCell(dir);
+		int  fromIdx = from.getRow() * numCols + from.getCol();
+		int  toIdx   = to.getRow() * numCols + to.getCol();
+		// gather the boxes touching the pushed box (from is treated as empty)
+		int  num     = 0;
+		cluster[num++] = toIdx;
+		setBit(frozen, toIdx);
+		for (int i=0; i<num; i++) {
+			Cell cell = cells[cluster[i] / numCols][cluster[i] % numCols];
+			for (Direction d : DIRECTIONS) {
+				Cell next = cell.getCell(d);
+				if ((next == null) || !next.hasBox())
+					continue;
+				int nextIdx = next.getRow() * numCols + next.getCol();
+				if ((nextIdx != fromIdx) && !getBit(frozen, nextIdx)) {
+					setBit(frozen, nextIdx);
+					cluster[num++] = nextIdx;
+				}
+			}
+		}
+		// free every box that can slide, until nothing changes
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i=0; i<num; i++) {
+				int idx = cluster[i];
+				if (getBit(frozen, idx) && (canSlide(idx, Direction.NORTH) || canSlide(idx, Direction.EAST))) {
+					frozen[idx >> 6] &= ~(1L << idx);
+					changed = true;
+				}
+			}
+		}
+		boolean safe = true;
+		for (int i=0; i<num; i++) {
+			int idx = cluster[i];
+			if (getBit(frozen, idx)) {
+				if (!cells[idx / numCols][idx % numCols].isTarget())
+					safe = false;
+				frozen[idx >> 6] &= ~(1L << idx);
+			}
+		}
+		return safe;
+	}
+
+	/**
+	 * Could the box in a cell slide along an axis, given the boxes currently assumed frozen?
+	 * 
+	 * @param idx the box cell, as row*numCols+col
+	 * @param dir either direction along the axis
+	 * @return could the box slide?
+	 */
+	private boolean canSlide(int idx, Direction dir) {
+		Cell cell = cells[idx / numCols][idx % numCols];
+		Cell one  = cell.getCell(dir);
+		Cell two  = cell.getCell(dir.reverse());
+		if ((one == null) || (two == null) || one.hasWall() || two.hasWall())
+			return false;
+		// only boxes in the cluster have bits set, and the cell the pushed box left is not one
+		if (getBit(frozen, one.getRow() * numCols + one.getCol()) || getBit(frozen, two.getRow() * numCols + two.getCol()))
+			return false;
+		return !isDeadCell(one.getRow(), one.getCol()) || !isDeadCell(two.getRow(), two.getCol());
+	}
+
+	/**
+	 * Test a bit in a bitset
+	 * 
+	 * @param bits the bitset
+	 * @param idx the bit
+	 * @return is the bit set?
+	 */
+	private static boolean getBit(long[] bits, int idx) {
+		return (bits[idx >> 6] & (1L << idx)) != 0;
+	}
+
+	/**
+	 * Set a bit in a bitset
+	 * 
+	 * @param bits the bitset
+	 * @param idx the bit
+	 */
+	private static void setBit(long[] bits, int idx) {
+		bits[idx >> 6] |= 1L << idx;
+	}
+
 	/**
 	 * Get the actor cell from the Sokoban puzzle
 	 * 
@@ -154,59 +574,71 @@ public class Sokoban extends Observable {
 	}
 
 	/**
-	 * Count the number of targets in the Sokoban puzzle
+	 * Add or remove a cell's contribution to the target, box, actor and on-target counts
+	 * 
+	 * @param cell the cell
+	 * @param sign 1 to add the cell, -1 to remove it
+	 */
+	private void count(Cell cell, int sign) {
+		if (cell.isTarget())
+			numTargets += sign;
+		if (cell.hasBox())
+			numBoxes += sign;
+		if (cell.hasActor())
+			numActors += sign;
+		if (cell.onTarget())
+			numOnTarget += sign;
+		if (cell.hasBox()) {
+			boxHash ^= zobrist.box(cell.getRow(), cell.getCol());
+			flipBox(cell);
+		}
+	}
+
+	/**
+	 * Flip a cell's bit in the bitset of box cells
+	 * 
+	 * @param cell the cell
+	 */
+	private void flipBox(Cell cell) {
+		int idx = cell.getRow() * numCols + cell.getCol();
+		boxBits[idx >> 6] ^= 1L << idx;
+	}
+
+	/**
+	 * Gets the number of targets in the Sokoban puzzle
 	 * 
 	 * @return the number of targets
 	 */
 	public int numTargets() {
-		int num = 0;
-		for (int row=0; row<numRows; row++)
-			for (int col=0; col<numCols; col++)
-				if (cells[row][col].isTarget())
-					num++;
-		return num;
+		return numTargets;
 	}
 
 	/**
-	 * Count the number of boxes in the Sokoban puzzle
+	 * Gets the number of boxes in the Sokoban puzzle
 	 * 
 	 * @return the number of boxes
 	 */
 	public int numBoxes() {
-		int num = 0;
-		for (int row=0; row<numRows; row++)
-			for (int col=0; col<numCols; col++)
-				if (cells[row][col].hasBox())
-					num++;
-		return num;
+		return numBoxes;
 	}
 
 	/**
-	 * Count the number of actors in the Sokoban puzzle (should be one)
+	 * Gets the number of actors in the Sokoban puzzle (should be one)
 	 * 
 	 * @return the number of actors
 	 */
 	public int numActors() {
-		int num = 0;
-		for (int row=0; row<numRows; row++)
-			for (int col=0; col<numCols; col++)
-				if (cells[row][col].hasActor())
-					num++;
-		return num;
+		return numActors;
 	}
 
 	/**
-	 * Count the number of boxes on target cells in the Sokoban puzzle
+	 * Gets the number of boxes on target cells in the Sokoban puzzle
+	 * (kept up to date by move and clear, rather than counted)
 	 * 
 	 * @return the number of boxes on target cells
 	 */
 	public int numOnTarget() {
-		int num = 0;
-		for (int row=0; row<numRows; row++)
-			for (int col=0; col<numCols; col++)
-				if (cells[row][col].onTarget())
-					num++;
-		return num;
+		return numOnTarget;
 	}
 
 	/**
@@ -242,28 +674,259 @@ public class Sokoban extends Observable {
 		return dirs;
 	}
 
+	/**
+	 * In which directions can the actor move?  (The same as canMove(), without building a
+	 * collection.)
+	 * 
+	 * @return a mask of the directions, with dir.bit() set for each
+	 */
+	public int legalMoves() {
+		int mask = 0;
+		for (Direction dir : DIRECTIONS)
+			if (actorCell.canMove(dir))
+				mask |= dir.bit();
+		return mask;
+	}
+
 	/**
 	 * If it is safe, move the actor to the next cell in a given direction
+	 * (this clears any moves available to redo)
 	 * 
 	 * @param dir the direction to move
 	 */
 	public void move(Direction dir) {
 		if (!canMove(dir))
 			throw new IllegalArgumentException("cannot move "+dir);
-		Cell oldActorCell = actorCell;
+		Move move = Move.getInstance(dir, step(dir));
+		history.add(move);
+		undone.clear();
+		fire(SokobanEvent.Type.MOVE, move);
+	}
+
+	/**
+	 * Make a sequence of moves as one operation, so listeners are told once, with every cell
+	 * changed.  Either all the moves are made or, if one of them is not allowed when its turn
+	 * comes, none are (any already made are taken back) and nothing is reported.
+	 * 
+	 * @param dirs the directions to move, in order (cannot be null)
+	 * @return were the moves made?
+	 */
+	public boolean move(List<Direction> dirs) {
+		if (dirs == null)
+			throw new IllegalArgumentException("dirs cannot be null");
+		int made = 0;
+		for (Direction dir : dirs) {
+			if ((dir == null) || !canMove(dir)) {
+				for (; made > 0; made--)
+					unstep(history.remove(history.size()-1));
+				forgetChanged();
+				return false;
+			}
+			history.add(Move.getInstance(dir, step(dir)));
+			made++;
+		}
+		if (made > 0) {
+			undone.clear();
+			if (listeners.length != 0)
+				fire(SokobanEvent.Type.MOVE, history.subList(history.size()-made, history.size()).toArray(new Move[made]));
+		}
+		return true;
+	}
+
+	/**
+	 * Move the actor to the next cell in a given direction (canMove must already have been checked)
+	 * 
+	 * @param dir the direction to move
+	 * @return was a box pushed?
+	 */
+	private boolean step(Direction dir) {
+		Cell    oldActorCell = actorCell;
+		boolean pushed       = actorCell.getCell(dir).hasBox();
 		actorCell.move(dir);
 		actorCell = actorCell.getCell(dir);
 		Cell next = actorCell.getCell(dir);
 		if (!actorCell.hasActor())
 			throw new IllegalStateException("actorCell must have Actor");
-		setChanged();
-		notifyObservers(oldActorCell); // where actor was
-		setChanged();
-		notifyObservers(actorCell);    // where actor is now
-		if (next != null) {
-			setChanged();
-			notifyObservers(next); // to where box may have been pushed
+		if (pushed) {
+			// the box left actorCell for next
+			if (actorCell.isTarget())
+				numOnTarget--;
+			if (next.isTarget())
+				numOnTarget++;
+			boxHash   ^= zobrist.box(actorCell.getRow(), actorCell.getCol()) ^ zobrist.box(next.getRow(), next.getCol());
+			flipBox(actorCell);
+			flipBox(next);
+			normalCell = null;
+		}
+		changed(oldActorCell); // where actor was
+		changed(actorCell);    // where actor is now
+		if (pushed)
+			changed(next);     // to where box was pushed
+		return pushed;
+	}
+
+	/**
+	 * Is there a move to undo?
+	 * 
+	 * @return is there a move to undo?
+	 */
+	public boolean canUndo() {
+		return !history.isEmpty();
+	}
+
+	/**
+	 * Is there an undone move to redo?
+	 * 
+	 * @return is there an undone move to redo?
+	 */
+	public boolean canRedo() {
+		return !undone.isEmpty();
+	}
+
+	/**
+	 * Take back the last move.  Only the cells the move changed are touched.
+	 * 
+	 * @return the direction of the move taken back
+	 */
+	public Direction undo() {
+		if (!canUndo())
+			throw new IllegalStateException("no move to undo");
+		Move last = history.remove(history.size()-1);
+		unstep(last);
+		undone.add(last);
+		fire(SokobanEvent.Type.UNDO, last);
+		return last.getDirection();
+	}
+
+	/**
+	 * Take back a move, which must be the last one made (it is not added to the moves to redo)
+	 * 
+	 * @param last the move
+	 */
+	private void unstep(Move last) {
+		Direction dir   = last.getDirection();
+		Cell      here  = actorCell;
+		Cell      prev  = actorCell.getCell(dir.reverse());
+		Cell      next  = actorCell.getCell(dir);
+		Occupant  actor = here.getOccupant();
+		here.setOccupant(null);
+		if (last.isPush()) {
+			// pull the box back from next
+			Occupant box = next.getOccupant();
+			if ((box == null) || !box.isBox())
+				throw new IllegalStateException("no box to pull back");
+			next.setOccupant(null);
+			here.setOccupant(box);
+			if (next.isTarget())
+				numOnTarget--;
+			if (here.isTarget())
+				numOnTarget++;
+			boxHash   ^= zobrist.box(next.getRow(), next.getCol()) ^ zobrist.box(here.getRow(), here.getCol());
+			flipBox(next);
+			flipBox(here);
+			normalCell = null;
+		}
+		prev.setOccupant(actor);
+		actorCell = prev;
+		changed(here);     // where actor was
+		changed(prev);     // where actor is now
+		if (last.isPush())
+			changed(next); // from where box was pulled
+	}
+
+	/**
+	 * Make the last undone move again
+	 * 
+	 * @return the direction of the move made again
+	 */
+	public Direction redo() {
+		if (!canRedo())
+			throw new IllegalStateException("no move to redo");
+		Move next = undone.remove(undone.size()-1);
+		step(next.getDirection());
+		history.add(next);
+		fire(SokobanEvent.Type.REDO, next);
+		return next.getDirection();
+	}
+
+	/**
+	 * The moves made since the start (or the last clear), not including undone moves
+	 * 
+	 * @return a vector of the directions moved
+	 */
+	public Vector<Direction> getMoves() {
+		Vector<Direction> dirs = new Vector<>(history.size());
+		for (Move m : history)
+			dirs.add(m.getDirection());
+		return dirs;
+	}
+
+	/**
+	 * The moves made since the start (or the last clear), with whether each pushed a box
+	 * 
+	 * @return an unmodifiable list of the moves
+	 */
+	List<Move> getHistory() {
+		return Collections.unmodifiableList(history);
+	}
+
+	/**
+	 * The moves undone that can be redone (the last is redone first)
+	 * 
+	 * @return an unmodifiable list of the moves
+	 */
+	List<Move> getUndone() {
+		return Collections.unmodifiableList(undone);
+	}
+
+	/**
+	 * A 64-bit Zobrist key for the current position: the boxes plus the top-left cell the actor
+	 * can reach.  Positions that differ only by where the actor has walked to share a key.
+	 * The box part is kept up to date by move, undo and clear; the actor part is only looked
+	 * for again after a box has moved.
+	 * 
+	 * @return the key
+	 */
+	public long getHash() {
+		Cell normal = getNormalizedActorCell();
+		return boxHash ^ zobrist.actor(normal.getRow(), normal.getCol());
+	}
+
+	/**
+	 * Get the top-left cell (lowest row, then lowest column) the actor can reach without pushing
+	 * 
+	 * @return the normalized actor cell
+	 */
+	Cell getNormalizedActorCell() {
+		if (normalCell != null)
+			return normalCell;
+		if (++reachStamp == 0) {
+			Arrays.fill(reachMarks, 0);
+			reachStamp = 1;
+		}
+		int head = 0;
+		int tail = 0;
+		int best = actorCell.getRow() * numCols + actorCell.getCol();
+		reachQueue[tail++] = best;
+		reachMarks[best]   = reachStamp;
+		while (head < tail) {
+			int  idx  = reachQueue[head++];
+			Cell cell = cells[idx / numCols][idx % numCols];
+			if (idx < best)
+				best = idx;
+			for (Direction dir : DIRECTIONS) {
+				Cell next = cell.getCell(dir);
+				if ((next == null) || next.hasWall() || next.hasBox())
+					continue;
+				int nextIdx = next.getRow() * numCols + next.getCol();
+				if (reachMarks[nextIdx] != reachStamp) {
+					reachMarks[nextIdx] = reachStamp;
+					reachQueue[tail++]  = nextIdx;
+				}
+			}
 		}
+		normalCell = cells[best / numCols][best % numCols];
+		return normalCell;
 	}
 
 	/**
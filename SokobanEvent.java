@@ -0,0 +1,98 @@
+import java.util.*;
+
+/**
+ * A change to a Sokoban puzzle: the operation, the moves it made, undid or redid (a batch of
+ * moves made together is one operation), and the cells it changed (each listed once).
+ * 
+ * @version October 2026
+ */
+public final class SokobanEvent {
+	/** The kinds of operation */
+	public enum Type {
+		MOVE, UNDO, REDO, RESET
+	}
+
+	private final Sokoban    source;
+	private final Type       type;
+	private final List<Move> moves;
+	private final List<Cell> cells;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param source the puzzle that changed
+	 * @param type the operation
+	 * @param moves the moves made, undone or redone, in order (null for RESET)
+	 * @param cells the cells that changed
+	 */
+	SokobanEvent(Sokoban source, Type type, Move[] moves, Cell[] cells) {
+		this.source = source;
+		this.type   = type;
+		this.moves  = (moves == null) ? Collections.<Move>emptyList() : Collections.unmodifiableList(Arrays.asList(moves));
+		this.cells  = Collections.unmodifiableList(Arrays.asList(cells));
+	}
+
+	/**
+	 * Gets the puzzle that changed
+	 * 
+	 * @return the puzzle
+	 */
+	public Sokoban getSource() {
+		return source;
+	}
+
+	/**
+	 * Gets the operation
+	 * 
+	 * @return the operation
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Gets the moves made, undone or redone, in the order they were made
+	 * 
+	 * @return an unmodifiable list of the moves (empty for RESET)
+	 */
+	public List<Move> getMoves() {
+		return moves;
+	}
+
+	/**
+	 * Gets the direction of the (last) move made, undone or redone
+	 * 
+	 * @return the direction (null for RESET)
+	 */
+	public Direction getDirection() {
+		return moves.isEmpty() ? null : moves.get(moves.size()-1).getDirection();
+	}
+
+	/**
+	 * Did the (last) move made, undone or redone push a box?
+	 * 
+	 * @return was a box pushed?
+	 */
+	public boolean isPush() {
+		return !moves.isEmpty() && moves.get(moves.size()-1).isPush();
+	}
+
+	/**
+	 * Gets the cells that changed
+	 * 
+	 * @return an unmodifiable list of the cells
+	 */
+	public List<Cell> getCells() {
+		return cells;
+	}
+
+	/**
+	 * A String representation of the event
+	 * 
+	 * @return the String representation
+	 */
+	@Override
+	public String toString() {
+		return type+" "+moves+" "+cells.size()+" cells";
+	}
+}
@@ -0,0 +1,16 @@
+/**
+ * A listener for changes to a Sokoban puzzle.
+ * 
+ * A listener is told once per operation (a move, an undo, a redo or a reset), with all the
+ * cells the operation changed, rather than once per cell.
+ * 
+ * @version October 2026
+ */
+public interface SokobanListener {
+	/**
+	 * The puzzle has changed
+	 * 
+	 * @param event what happened, and which cells it changed
+	 */
+	void changed(SokobanEvent event);
+}
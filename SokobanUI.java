@@ -23,7 +23,11 @@ public class SokobanUI {
     private Sokoban            puzzle         = null;
     private Player             player         = null;
     private Stack<Direction>   stack          = null;
+    private SaveGame.Journal   journal        = null;
     private static final String  FILENAME = "screens/screen.1";
+    private static final String  SAVEFILE = "save.sok";
+    private static final String  OLDSAVEFILE = "save.txt"; // text saves from earlier versions
+    private static final String  AUTOSAVE = "autosave.sok";
 
     private static final boolean   traceOn = false; // for debugging
     /**
@@ -35,6 +39,25 @@ public class SokobanUI {
         puzzle = new Sokoban(new File(FILENAME));
         player = new RandomPlayer();
         stack = new Stack<Direction>();
+        resume();
+    }
+
+    /**
+     * Carry on from the autosave journal, if there is one for this screen, then keep
+     * journalling every move to it
+     */
+    private void resume() {
+        File autosave = new File(AUTOSAVE);
+        if (autosave.exists()) {
+            try {
+                SaveGame.load(puzzle, autosave);
+                stack.addAll(puzzle.getMoves());
+                System.out.println("autosaved game resumed");
+            } catch (SokobanException e) {
+                puzzle.clear();
+            }
+        }
+        journal = new SaveGame.Journal(puzzle, autosave);
     }
 
     /**
@@ -67,6 +90,7 @@ public class SokobanUI {
         System.out.println("   Move West          [W]");
         System.out.println("   Player move        [P]");
         System.out.println("   Undo move          [U]");
+        System.out.println("   Redo move          [R]");
         System.out.println("   Restart puzzle [Clear]");
         System.out.println("   Save to file    [Save]");
         System.out.println("   Load from file  [Load]");
@@ -92,6 +116,7 @@ public class SokobanUI {
     private void execute(String command) {
         if (command.equalsIgnoreCase("Quit")) {
             System.out.println("Program closing down");
+            journal.close();
             System.exit(0);
         } else if (command.equalsIgnoreCase("N")) {
             north();
@@ -105,6 +130,8 @@ public class SokobanUI {
             playerMove();
         } else if (command.equalsIgnoreCase("U")) {
             undo();
+        } else if (command.equalsIgnoreCase("R")) {
+            redo();
         } else if (command.equalsIgnoreCase("Clear")) {
             clear();
         } else if (command.equalsIgnoreCase("Save")) {
@@ -118,59 +145,59 @@ public class SokobanUI {
 
     /**NEW Clear the game and create refresh stack, then inform user game reset was successful**/
     private void clear(){
-        puzzle = new Sokoban (new File(FILENAME));
+        puzzle.clear();
         stack = new Stack<Direction>();
         System.out.println ("Game reset");
 
         
     }
 
-    /** NEW save the game by writing the stack of Directions to file and inform the user
+    /** NEW save the game to a compact binary file (see SaveGame) and inform the user
        try and catch used to help identify any associated errors**/
     private void save(){     
-         try {
-        PrintStream ps = new PrintStream(new File("save.txt"));
-        for (Direction d : stack)
-        ps.println(d.toString());
-        ps.close();
-        System.out.println("game saved to file");
-        } catch (IOException e) {
-        System.out.println("an input output error occurred");
+        try {
+            SaveGame.save(puzzle, new File(SAVEFILE));
+            System.out.println("game saved to file");
+        } catch (SokobanException e) {
+            System.out.println("an input output error occurred");
         }    
     }
 
-    /**NEW load the game using a scanner on the saved txt file. This converts the string to its enum value
-       by creating objects of direction (d) using the valueOf command then pushing the converted direction
-       value into the stack. User is then informed if load was successful, and try and catch is used to 
-       help identify associated IO errors**/
+    /**NEW load the game from the saved file. The board goes straight to the saved position,
+       with the saved moves ready to undo, and the stack is rebuilt from them. A save.txt from an
+       earlier version is replayed instead if there is no saved file. User is then informed if
+       load was successful, and try and catch is used to help identify errors**/
     private void load(){
-            try {
-      Scanner fscnr = new Scanner(new File("save.txt"));
-      clear();
-      while (fscnr.hasNextLine()) {
-        Direction d = Direction.valueOf(fscnr.nextLine());        
-        puzzle.move(d);
-        stack.push(d);
-      }
-      fscnr.close();
-      System.out.println("game loaded from file");
-    } catch (IOException e) {
-      System.out.println("an input output error occurred");
-    } 
+        try {
+            File file = new File(SAVEFILE);
+            if (!file.exists() && new File(OLDSAVEFILE).exists())
+                SaveGame.loadText(puzzle, new File(OLDSAVEFILE));
+            else
+                SaveGame.load(puzzle, file);
+            stack = new Stack<Direction>();
+            stack.addAll(puzzle.getMoves());
+            System.out.println("game loaded from file");
+        } catch (SokobanException e) {
+            System.out.println("could not load game: "+e.getMessage());
+        } 
     }
 
     /**NEW undo the last move, if stack is empty do nothing, else pop the latest move from the stack
-       and rebuild the stack using oldStack to prevent loss of stack data**/
+       and take it back in the puzzle (only the cells it changed are touched, nothing is replayed)**/
     private void undo(){
         if (stack.empty())
           return;
-        Direction top = stack.pop();
-        Stack<Direction> oldStack = stack;
-        clear();
-        for (Direction d : oldStack) {
-            puzzle.move(d);
-            stack.push(d);
-        }
+        stack.pop();
+        puzzle.undo();
+    }
+
+    /**
+     * Redo the last undone move, if there is one, and push it back onto the stack
+     */
+    private void redo(){
+        if (!puzzle.canRedo())
+          return;
+        stack.push(puzzle.redo());
     }
 
     /**
@@ -234,8 +261,7 @@ public class SokobanUI {
      * above for NSEW is not required.
      */
     private void playerMove() {
-        Vector<Direction> choices = puzzle.canMove();
-        Direction         choice  = player.move(choices);
+        Direction choice = player.move(puzzle.legalMoves());
         move(choice);       
         stack.push(choice);
     }  
@@ -0,0 +1,357 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Shortens a recorded list of moves for a screen, such as the moves of a saved game (see
+ * SaveGame) or of a RandomPlayer run, into one that ends in the same position.
+ *
+ * The moves are first replayed as a list of pushes.  Moves into a wall, or into a box that
+ * cannot move, change nothing and are dropped.  Whenever a push returns the boxes to where they
+ * were earlier, with the actor in the same region, the pushes since are dropped too, as they
+ * went round in a circle, and once the boxes are all on targets the rest are dropped.
+ *
+ * Then the pushes are searched over in windows: for each run of a few pushes, a breadth-first
+ * search over pushes looks for a shorter way from the position before the run to the position
+ * after it, and uses it if there is one.  The windows are passed over again, offset by half a
+ * window, until a pass makes no saving.  Finally the moves are rebuilt, with the actor walking to
+ * each push (and at the end to where it finished) along a shortest path.  Each step is linear in
+ * the moves or bounded per push, so lists of 100k moves and more take a few seconds.
+ *
+ * @version October 2026
+ */
+public class SolutionOptimizer {
+	private static final int DEFAULT_WINDOW = 8;    // pushes
+	private static final int DEFAULT_NODES  = 2000; // positions per window search
+	private static final int MAX_PASSES     = 8;
+
+	private final Board         start;
+	private final PushDistances distances;
+	private final PushGenerator generator;
+	private final Board         scratch;            // for the window searches
+	private final int[]         marks;              // stamp of the window search whose goal has a box on each square
+	private int                 stamp    = 0;
+	private int                 window   = DEFAULT_WINDOW;
+	private int                 maxNodes = DEFAULT_NODES;
+	private int                 pushes   = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param board the position the moves start from (cannot be null, and is not changed)
+	 */
+	public SolutionOptimizer(Board board) {
+		if (board == null)
+			throw new IllegalArgumentException("board cannot be null");
+		start     = new Board(board);
+		distances = new PushDistances(board);
+		generator = new PushGenerator(board.size());
+		scratch   = new Board(board);
+		marks     = new int[board.size()];
+	}
+
+	/**
+	 * Sets the number of pushes in each window searched for a shorter way
+	 *
+	 * @param window the pushes (at least 2)
+	 */
+	public void setWindow(int window) {
+		if (window < 2)
+			throw new IllegalArgumentException("window must be at least 2 pushes");
+		this.window = window;
+	}
+
+	/**
+	 * Sets the most positions a window search may look at before giving up
+	 *
+	 * @param maxNodes the most positions (must be positive)
+	 */
+	public void setMaxNodes(int maxNodes) {
+		if (maxNodes <= 0)
+			throw new IllegalArgumentException("maxNodes must be positive");
+		this.maxNodes = maxNodes;
+	}
+
+	/**
+	 * Gets the number of pushes in the moves from the last optimize
+	 *
+	 * @return the number of pushes
+	 */
+	public int getPushes() {
+		return pushes;
+	}
+
+	/**
+	 * Shorten a list of moves
+	 *
+	 * @param moves the moves (cannot be null; moves that cannot be made are left out)
+	 * @return moves that end in the same position (or, if the boxes were all put on targets, that
+	 *         put them there), no longer than those given
+	 */
+	public Vector<Direction> optimize(List<Direction> moves) {
+		if (moves == null)
+			throw new IllegalArgumentException("moves cannot be null");
+		// replay the moves as pushes, cutting out circles
+		Board                  board  = new Board(start);
+		ArrayList<Integer>     path   = new ArrayList<>();  // push codes (see PushGenerator)
+		ArrayList<Long>        hashes = new ArrayList<>();  // of the position after each push
+		HashMap<Long, Integer> index  = new HashMap<>();    // position after the pushes made
+		hashes.add(board.getHash());
+		index.put(board.getHash(), 0);
+		for (Direction dir : moves) {
+			if (board.onTarget())
+				break;
+			if (!board.canMove(dir))
+				continue;
+			int box = board.getActor() + board.offset(dir.ordinal());
+			if (!board.move(dir))
+				continue;
+			long    hash = board.getHash();
+			Integer at   = index.get(hash);
+			if (at != null) {
+				while (path.size() > at) {
+					path.remove(path.size() - 1);
+					index.remove(hashes.remove(hashes.size() - 1));
+				}
+			} else {
+				path.add((box << 2) | dir.ordinal());
+				hashes.add(hash);
+				index.put(hash, path.size());
+			}
+		}
+		int end = board.onTarget() ? -1 : board.getActor();
+		// shorten runs of pushes, until a pass makes no saving
+		for (int pass=0; pass<MAX_PASSES; pass++) {
+			int before = path.size();
+			path = shorten(path, (pass & 1) * (window / 2));
+			if ((path.size() == before) && (pass > 0))
+				break;
+		}
+		Vector<Direction> result = rebuild(path, end);
+		Board reached = replay(result);
+		if ((reached.getBoxHash() != board.getBoxHash()) || ((end >= 0) && (reached.getActor() != end))) {
+			// a shortcut went wrong (two positions shared a key): keep the moves that were given
+			result = new Vector<>();
+			Board check = new Board(start);
+			pushes = 0;
+			for (Direction dir : moves) {
+				if (check.onTarget())
+					break;
+				if (check.canMove(dir)) {
+					if (check.move(dir))
+						pushes++;
+					result.add(dir);
+				}
+			}
+			return result;
+		}
+		pushes = path.size();
+		return result;
+	}
+
+	/**
+	 * One pass over the pushes in windows, replacing each with a shorter way if one is found
+	 *
+	 * @param path the push codes
+	 * @param first the pushes before the first window
+	 * @return the new push codes
+	 */
+	private ArrayList<Integer> shorten(ArrayList<Integer> path, int first) {
+		ArrayList<Integer> result = new ArrayList<>(path.size());
+		Board              board  = new Board(start);
+		int                i      = 0;
+		while (i < path.size()) {
+			int len = (i == 0 && first > 0) ? first : window;
+			int j   = Math.min(i + len, path.size());
+			// the position before the window, and the one after it
+			int[] from  = board.getBoxes();
+			int   actor = board.getActor();
+			for (int k=i; k<j; k++)
+				board.push(PushGenerator.box(path.get(k)), PushGenerator.dir(path.get(k)));
+			List<Integer> way = (j - i > 1) ? search(from, actor, board, j - i) : null;
+			if (way != null) {
+				result.addAll(way);
+			} else {
+				for (int k=i; k<j; k++)
+					result.add(path.get(k));
+			}
+			i = j;
+		}
+		return result;
+	}
+
+	/**
+	 * Search breadth-first for a way from one position to another in fewer pushes than a limit.
+	 * A box not on one of the second position's box squares needs at least one more push, so a
+	 * position with too many of them is not searched from.
+	 *
+	 * @param boxes the boxes of the first position
+	 * @param actor the actor square of the first position
+	 * @param to the second position
+	 * @param limit the pushes to beat
+	 * @return the push codes of the way, or null if none was found
+	 */
+	private List<Integer> search(int[] boxes, int actor, Board to, int limit) {
+		long                  goal   = to.getHash();
+		int[]                 target = to.getBoxes();
+		boolean               prune  = true;  // pushes onto dead squares only if the goal needs them
+		for (int box : target)
+			if (distances.isDead(box))
+				prune = false;
+		ArrayList<int[]>      states = new ArrayList<>();  // boxes with the actor after them
+		ArrayList<Integer>    codes  = new ArrayList<>();  // the push that led to each
+		ArrayList<Integer>    parent = new ArrayList<>();
+		ArrayList<Integer>    depth  = new ArrayList<>();
+		ArrayList<Integer>    away   = new ArrayList<>();  // boxes not on the goal's box squares
+		HashSet<Long>         seen   = new HashSet<>();
+		if (++stamp == 0) {
+			Arrays.fill(marks, 0);
+			stamp = 1;
+		}
+		for (int box : target)
+			marks[box] = stamp;
+		int misplaced = 0;
+		for (int box : boxes)
+			if (marks[box] != stamp)
+				misplaced++;
+		int[] current = scratch.getBoxes();
+		setScratch(current, boxes, actor);
+		current = boxes;
+		seen.add(scratch.getHash());
+		states.add(withActor(boxes, actor));
+		codes.add(-1);
+		parent.add(-1);
+		depth.add(0);
+		away.add(misplaced);
+		for (int n=0; (n < states.size()) && (states.size() < maxNodes); n++) {
+			if (depth.get(n) + 1 >= limit)
+				break;
+			int[] state = states.get(n);
+			int[] from  = Arrays.copyOf(state, state.length - 1);
+			setScratch(current, from, state[state.length - 1]);
+			current = from;
+			int num = generator.generate(scratch);
+			for (int p=0; p<num; p++) {
+				int push = generator.getPush(p);
+				int box  = PushGenerator.box(push);
+				int dir  = PushGenerator.dir(push);
+				int dest = box + scratch.offset(dir);
+				if (prune && distances.isDead(dest))
+					continue;
+				int left = away.get(n) - ((marks[box] != stamp) ? 1 : 0) + ((marks[dest] != stamp) ? 1 : 0);
+				if (depth.get(n) + 1 + left >= limit)
+					continue;
+				int here = scratch.getActor();
+				scratch.push(box, dir);
+				long hash = scratch.getHash();
+				if (seen.add(hash)) {
+					int[] moved = Expander.moveBox(from, Arrays.binarySearch(from, box), dest);
+					if ((hash == goal) && Arrays.equals(moved, target)) {
+						LinkedList<Integer> way = new LinkedList<>();
+						way.addFirst(push);
+						for (int k=n; parent.get(k) >= 0; k=parent.get(k))
+							way.addFirst(codes.get(k));
+						scratch.push(dest, dir ^ 1); // pull it back
+						scratch.setActor(here);
+						return way;
+					}
+					states.add(withActor(moved, box));
+					codes.add(push);
+					parent.add(n);
+					depth.add(depth.get(n) + 1);
+					away.add(left);
+				}
+				scratch.push(dest, dir ^ 1); // pull it back
+				scratch.setActor(here);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Move the scratch board from one set of boxes to another
+	 *
+	 * @param current the boxes now on the scratch board
+	 * @param boxes the boxes to put on it
+	 * @param actor the actor square
+	 */
+	private void setScratch(int[] current, int[] boxes, int actor) {
+		for (int box : current)
+			scratch.removeBox(box);
+		scratch.setActor(actor);
+		for (int box : boxes)
+			scratch.addBox(box);
+	}
+
+	/**
+	 * Turn pushes into moves, walking along shortest paths between them
+	 *
+	 * @param path the push codes
+	 * @param end the square to walk to at the end (-1 for none)
+	 * @return the moves
+	 */
+	private Vector<Direction> rebuild(List<Integer> path, int end) {
+		Board             replay = new Board(start);
+		Reachability      reach  = new Reachability(replay.size());
+		Vector<Direction> moves  = new Vector<>();
+		for (int push : path) {
+			int box = PushGenerator.box(push);
+			int dir = PushGenerator.dir(push);
+			SearchNode.walk(replay, reach, box - replay.offset(dir), moves);
+			replay.move(dir);
+			moves.add(Direction.values()[dir]);
+		}
+		if ((end >= 0) && reach.fill(replay).isReachable(end))
+			SearchNode.walk(replay, reach, end, moves);
+		return moves;
+	}
+
+	/**
+	 * Play moves from the start
+	 *
+	 * @param moves the moves (all of which can be made)
+	 * @return the position reached
+	 */
+	private Board replay(List<Direction> moves) {
+		Board board = new Board(start);
+		for (Direction dir : moves)
+			board.move(dir);
+		return board;
+	}
+
+	/**
+	 * A search state: the box squares with the actor square after them
+	 *
+	 * @param boxes the box squares
+	 * @param actor the actor square
+	 * @return the state
+	 */
+	private static int[] withActor(int[] boxes, int actor) {
+		int[] state = Arrays.copyOf(boxes, boxes.length+1);
+		state[boxes.length] = actor;
+		return state;
+	}
+
+	/**
+	 * Shorten the moves of a saved game, reporting the saving
+	 *
+	 * @param args the screen file, then the saved game files for it
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("usage: java SolutionOptimizer screen save...");
+			return;
+		}
+		File screen = new File(args[0]);
+		for (int i=1; i<args.length; i++) {
+			Sokoban puzzle = new Sokoban(screen);
+			SaveGame.load(puzzle, new File(args[i]));
+			Vector<Direction>  moves     = puzzle.getMoves();
+			SolutionOptimizer  optimizer = new SolutionOptimizer(new Board(screen));
+			long               begin     = System.currentTimeMillis();
+			Vector<Direction>  shorter   = optimizer.optimize(moves);
+			long               time      = System.currentTimeMillis() - begin;
+			System.out.println(args[i]+": "+moves.size()+" moves to "+shorter.size()+" moves, "+
+					optimizer.getPushes()+" pushes, "+time+" ms");
+		}
+	}
+}
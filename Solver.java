@@ -0,0 +1,223 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * An A* solver for Sokoban that searches over pushes rather than single steps.
+ *
+ * A search state is the set of box squares plus the normalized actor square (the top-left
+ * square the actor can reach), so positions that differ only by where the actor has walked to
+ * are the same state.  The cost of a solution is its number of pushes, and the lower bound is
+ * the cheapest assignment of boxes to targets (see Assignment), so the first solution found has
+ * as few pushes as possible.  Pushes onto dead squares, that leave the boxes with no
+ * assignment, or that lead to a freeze or corral deadlock (see DeadlockDetector), are never
+ * tried.
+ *
+ * The states seen are kept in a HashMap by default.  For large screens they can instead be kept
+ * in an off-heap TranspositionTable of a fixed size (see setTableBytes), which may forget states
+ * when full, so some may be searched again, but the solution still has the fewest pushes.  Then
+ * the states still to be expanded are packed into an OpenList rather than kept as SearchNodes,
+ * and the most states (see setMaxStates) counts those queued, as the table has its own bound.
+ *
+ * The lower bound can be given more weight than the pushes so far (see setWeight), which finds a
+ * solution sooner on some screens, but then it may not have the fewest pushes.  Even so, the
+ * search only finishes within seconds on the easier screens: with a 3 second limit screens 1, 38
+ * and 78 of the bundled 90 are solved, and with a weight of 2 screens 1, 2, 78, 79 and 83.  The
+ * rest need more pruning than the dead squares, the assignment bound and the deadlock checks.
+ *
+ * @version October 2026
+ */
+public class Solver {
+	private final Board         start;
+	private final PushDistances distances;
+	private int                 maxStates  = 2000000;
+	private long                timeLimit  = 0;        // milliseconds (0 for none)
+	private long                tableBytes = 0;        // off-heap table size (0 for a HashMap)
+	private int                 weight     = 1;        // of the lower bound in the priority
+	private int                 expanded   = 0;
+	private int                 generated  = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param board the position to solve from (cannot be null, and is not changed)
+	 */
+	public Solver(Board board) {
+		if (board == null)
+			throw new IllegalArgumentException("board cannot be null");
+		this.start = new Board(board);
+		distances  = new PushDistances(board);
+	}
+
+	/**
+	 * Sets the most states the search may store before giving up: those seen, or with a table
+	 * (see setTableBytes), those queued to be expanded
+	 *
+	 * @param maxStates the most states (must be positive)
+	 */
+	public void setMaxStates(int maxStates) {
+		if (maxStates <= 0)
+			throw new IllegalArgumentException("maxStates must be positive");
+		this.maxStates = maxStates;
+	}
+
+	/**
+	 * Sets how long the search may run before giving up
+	 *
+	 * @param millis the time limit in milliseconds (0 for no limit)
+	 */
+	public void setTimeLimit(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("time limit cannot be negative");
+		this.timeLimit = millis;
+	}
+
+	/**
+	 * Sets the size of an off-heap table to keep the states seen in, instead of a HashMap on the
+	 * heap (the states still to be expanded stay on the heap, but packed)
+	 *
+	 * @param bytes the table size in bytes (0 for a HashMap)
+	 */
+	public void setTableBytes(long bytes) {
+		if (bytes < 0)
+			throw new IllegalArgumentException("table size cannot be negative");
+		this.tableBytes = bytes;
+	}
+
+	/**
+	 * Sets the weight of the lower bound in the order states are expanded in.  A weight above 1
+	 * usually finds a solution sooner, but not always the one with the fewest pushes.
+	 *
+	 * @param weight the weight (at least 1, the default)
+	 */
+	public void setWeight(int weight) {
+		if (weight < 1)
+			throw new IllegalArgumentException("weight must be at least 1");
+		this.weight = weight;
+	}
+
+	/**
+	 * Gets the number of states expanded by the last solve
+	 *
+	 * @return the number of states expanded
+	 */
+	public int getExpanded() {
+		return expanded;
+	}
+
+	/**
+	 * Gets the number of states generated by the last solve
+	 *
+	 * @return the number of states generated
+	 */
+	public int getGenerated() {
+		return generated;
+	}
+
+	/**
+	 * Search for a solution with the fewest pushes (or, with a weight above 1, a solution)
+	 *
+	 * @return the moves of the solution, or null if there is none or a limit was reached
+	 */
+	public Vector<Direction> solve() {
+		long deadline = (timeLimit > 0) ? System.currentTimeMillis() + timeLimit : Long.MAX_VALUE;
+		expanded  = 0;
+		generated = 0;
+		Expander   expander = new Expander(start, distances);
+		SearchNode root     = expander.root();
+		if (root == null)
+			return null;
+		if (tableBytes > 0)
+			return solve(expander, root, new TranspositionTable(tableBytes), deadline);
+		PriorityQueue<SearchNode> open = new PriorityQueue<>(new Comparator<SearchNode>() {
+			@Override
+			public int compare(SearchNode a, SearchNode b) {
+				int fa = a.g + weight * a.h;
+				int fb = b.g + weight * b.h;
+				return (fa != fb) ? Integer.compare(fa, fb) : Integer.compare(a.h, b.h);
+			}
+		});
+		HashMap<SearchNode, SearchNode> seen     = new HashMap<>();
+		ArrayList<SearchNode>           children = new ArrayList<>();
+		open.add(root);
+		seen.put(root, root);
+		while (!open.isEmpty()) {
+			SearchNode node = open.poll();
+			if (seen.get(node) != node)
+				continue; // a cheaper way here was found after this was queued
+			if (node.h == 0)
+				return node.toMoves(start);
+			if ((seen.size() >= maxStates) || (((expanded & 0xff) == 0) && (System.currentTimeMillis() > deadline)))
+				return null;
+			expanded++;
+			expander.expand(node, children);
+			for (SearchNode child : children) {
+				generated++;
+				SearchNode old = seen.get(child);
+				if ((old == null) || (child.g < old.g)) {
+					seen.put(child, child);
+					open.add(child);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Search as solve does, keeping the states seen in a table and those to expand in an OpenList
+	 *
+	 * @param expander the expander
+	 * @param root the start node
+	 * @param table the table
+	 * @param deadline when to give up (in milliseconds since the epoch)
+	 * @return the moves of the solution, or null if there is none or a limit was reached
+	 */
+	private Vector<Direction> solve(Expander expander, SearchNode root, TranspositionTable table, long deadline) {
+		OpenList              open     = new OpenList(root.boxes.length, weight);
+		ArrayList<SearchNode> children = new ArrayList<>();
+		open.add(root, -1);
+		table.put(root.hash, root.check(), root.g);
+		while (!open.isEmpty()) {
+			SearchNode node = open.poll();
+			int        from = open.from();
+			int        best = table.get(node.hash, node.check());
+			if ((best != TranspositionTable.NONE) && (best < node.g))
+				continue; // a cheaper way here was found after this was queued
+			if (node.h == 0)
+				return open.toMoves(start, node, from);
+			if ((open.size() >= maxStates) || (((expanded & 0xff) == 0) && (System.currentTimeMillis() > deadline)))
+				return null;
+			expanded++;
+			expander.expand(node, children);
+			int here = open.record(node, from);
+			for (SearchNode child : children) {
+				generated++;
+				if (table.put(child.hash, child.check(), child.g))
+					open.add(child, here);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Solve the screen files given on the command line, reporting the results
+	 *
+	 * @param args [-table MB] the screen files
+	 */
+	public static void main(String[] args) {
+		long tableBytes = 0;
+		for (int i=0; i<args.length; i++) {
+			if (args[i].equals("-table") && (i+1 < args.length)) {
+				tableBytes = Long.parseLong(args[++i]) << 20;
+				continue;
+			}
+			String            arg    = args[i];
+			Solver            solver = new Solver(new Board(new File(arg)));
+			solver.setTableBytes(tableBytes);
+			long              begin  = System.currentTimeMillis();
+			Vector<Direction> moves  = solver.solve();
+			long              time   = System.currentTimeMillis() - begin;
+			System.out.println(arg+": "+((moves == null) ? "no solution" : moves.size()+" moves")+
+					", "+solver.getExpanded()+" expanded, "+solver.getGenerated()+" generated, "+time+" ms");
+		}
+	}
+}
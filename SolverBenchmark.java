@@ -0,0 +1,153 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Compares ParallelSolver with Solver over screen files: for each screen, Solver and then
+ * ParallelSolver with each number of threads are run with the same time limit, and the pushes of
+ * the solution, the states expanded and generated and the wall time of each are written to a CSV
+ * file (one row per solver and screen) and summed up on the console, with the expansions and
+ * time of each relative to Solver's.  Each screen is first solved once by Solver, untimed, to
+ * warm up the JIT.  The expansions show the extra work the parallel search does; it pays off
+ * when the wall time falls with more threads (given as many cores) while the expansions grow
+ * slowly.
+ *
+ * Usage: java SolverBenchmark [-threads 1,2,4,8] [-limit SECONDS] [-out file.csv] [screen files...]
+ * (by default screens 1, 38 and 78, which Solver solves, a 60 second limit and solvers.csv)
+ *
+ * @version October 2026
+ */
+public class SolverBenchmark {
+	private final int[]       threads;
+	private final long        limit; // milliseconds
+	private final PrintStream csv;
+
+	/**
+	 * Constructor
+	 *
+	 * @param threads the numbers of threads to run ParallelSolver with (each positive)
+	 * @param limit the time limit for each solve in milliseconds (0 for none)
+	 * @param csv where to write the results
+	 */
+	public SolverBenchmark(int[] threads, long limit, PrintStream csv) {
+		if ((threads == null) || (threads.length == 0))
+			throw new IllegalArgumentException("threads cannot be empty");
+		for (int t : threads)
+			if (t <= 0)
+				throw new IllegalArgumentException("threads must be positive");
+		if (limit < 0)
+			throw new IllegalArgumentException("limit cannot be negative");
+		if (csv == null)
+			throw new IllegalArgumentException("csv cannot be null");
+		this.threads = threads.clone();
+		this.limit   = limit;
+		this.csv     = csv;
+		csv.println("solver,threads,screen,pushes,expanded,generated,ms");
+	}
+
+	/**
+	 * Run every solver on a screen file
+	 *
+	 * @param file the screen file
+	 */
+	public void runAll(File file) {
+		Board  board  = new Board(file);
+		String screen = file.getName();
+		Solver warmup = new Solver(board);
+		warmup.setTimeLimit(limit);
+		warmup.solve();
+
+		Solver            solver = new Solver(board);
+		solver.setTimeLimit(limit);
+		long              begin  = System.currentTimeMillis();
+		Vector<Direction> moves  = solver.solve();
+		long              base   = System.currentTimeMillis() - begin;
+		report("Solver", 1, screen, board, moves, solver.getExpanded(), solver.getGenerated(), base,
+				solver.getExpanded(), base);
+		for (int t : threads) {
+			ParallelSolver parallel = new ParallelSolver(board);
+			parallel.setParallelism(t);
+			parallel.setTimeLimit(limit);
+			begin = System.currentTimeMillis();
+			moves = parallel.solve();
+			long time = System.currentTimeMillis() - begin;
+			report("ParallelSolver", t, screen, board, moves, parallel.getExpanded(), parallel.getGenerated(),
+					time, solver.getExpanded(), base);
+		}
+	}
+
+	/**
+	 * Write a row of results, and a line comparing it with Solver
+	 *
+	 * @param name the solver's name
+	 * @param t the number of threads
+	 * @param screen the screen name
+	 * @param board the position solved from
+	 * @param moves the solution (null if none was found)
+	 * @param expanded the states expanded
+	 * @param generated the states generated
+	 * @param time the wall time in milliseconds
+	 * @param baseExpanded the states Solver expanded
+	 * @param baseTime Solver's wall time in milliseconds
+	 */
+	private void report(String name, int t, String screen, Board board, Vector<Direction> moves,
+			int expanded, int generated, long time, int baseExpanded, long baseTime) {
+		int pushes = (moves == null) ? -1 : pushes(board, moves);
+		csv.printf(Locale.ROOT, "%s,%d,%s,%d,%d,%d,%d%n", name, t, screen, pushes, expanded, generated, time);
+		System.out.printf(Locale.ROOT, "%-14s %2d %-10s %8s %10d expanded (x%.2f) %8d ms (x%.2f)%n",
+				name, t, screen, (moves == null) ? "none" : pushes+" pushes", expanded,
+				(double) expanded / Math.max(1, baseExpanded), time, (double) time / Math.max(1, baseTime));
+	}
+
+	/**
+	 * Count the pushes in a solution
+	 *
+	 * @param board the position solved from (not changed)
+	 * @param moves the solution
+	 * @return the pushes
+	 */
+	private static int pushes(Board board, Vector<Direction> moves) {
+		Board replay = new Board(board);
+		int   pushes = 0;
+		for (Direction dir : moves)
+			if (replay.move(dir))
+				pushes++;
+		return pushes;
+	}
+
+	/**
+	 * Run the benchmarks
+	 *
+	 * @param args [-threads 1,2,4,8] [-limit SECONDS] [-out file.csv] [screen files...]
+	 */
+	public static void main(String[] args) throws IOException {
+		int[]           threads = { 1, 2, 4, 8 };
+		long            limit   = 60000;
+		String          out     = "solvers.csv";
+		ArrayList<File> files   = new ArrayList<>();
+		for (int i=0; i<args.length; i++) {
+			if (args[i].equals("-threads") && (i+1 < args.length)) {
+				String[] counts = args[++i].split(",");
+				threads = new int[counts.length];
+				for (int c=0; c<counts.length; c++)
+					threads[c] = Integer.parseInt(counts[c].trim());
+			} else if (args[i].equals("-limit") && (i+1 < args.length)) {
+				limit = Long.parseLong(args[++i]) * 1000;
+			} else if (args[i].equals("-out") && (i+1 < args.length)) {
+				out = args[++i];
+			} else {
+				files.add(new File(args[i]));
+			}
+		}
+		if (files.isEmpty())
+			for (int n : new int[] { 1, 38, 78 })
+				files.add(new File("screens/screen."+n));
+		PrintStream csv = new PrintStream(new FileOutputStream(out));
+		try {
+			SolverBenchmark benchmark = new SolverBenchmark(threads, limit, csv);
+			for (File file : files)
+				benchmark.runAll(file);
+		} finally {
+			csv.close();
+		}
+	}
+}
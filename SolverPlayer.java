@@ -0,0 +1,104 @@
+import java.util.*;
+
+/**
+ * A player for a Sokoban puzzle that solves the puzzle with a Solver and then plays the moves
+ * of the solution one at a time.
+ *
+ * If the puzzle is no longer where the plan expects it to be (because moves were made that did
+ * not come from this player), a new plan is made from the current position.  If no solution can
+ * be found, the player chooses at random until a box has been pushed, then tries again.
+ *
+ * The player only needs a solution, not the one with the fewest pushes, so the solver gives its
+ * lower bound a weight of 2 (see Solver.setWeight).  Within a few seconds that solves only a
+ * handful of the bundled screens (1, 2, 78, 79 and 83 with a 3 second limit); on the others,
+ * screen 90 among them, no plan is found in time and the player plays at random.
+ *
+ * @version October 2026
+ */
+public class SolverPlayer implements Player {
+	private static final int            WEIGHT    = 2;     // of the solver's lower bound
+
+	private final Sokoban               puzzle;
+	private final ArrayDeque<Direction> plan      = new ArrayDeque<>();
+	private final Random                rnd       = new Random();
+	private Board                       expected  = null;  // where the puzzle should be, if following the plan
+	private long                        unsolved  = 0;     // key of the last position with no plan
+	private boolean                     failed    = false;
+	private long                        timeLimit = 10000; // milliseconds per plan
+
+	/**
+	 * Constructor
+	 *
+	 * @param puzzle the puzzle being played (cannot be null)
+	 */
+	public SolverPlayer(Sokoban puzzle) {
+		if (puzzle == null)
+			throw new IllegalArgumentException("puzzle cannot be null");
+		this.puzzle = puzzle;
+	}
+
+	/**
+	 * Sets how long the solver may take to make a plan
+	 *
+	 * @param millis the time limit in milliseconds (0 for no limit)
+	 */
+	public void setTimeLimit(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("time limit cannot be negative");
+		this.timeLimit = millis;
+	}
+
+	/**
+	 * The next move of the solution, if it is one of the choices; otherwise a random choice.
+	 *
+	 * @param choices possible directions for the player to choose from
+	 * @return the chosen direction
+	 */
+	@Override
+	public Direction move(Vector<Direction> choices) {
+		if (choices == null)
+			throw new IllegalArgumentException("cannot have null choices");
+		if (choices.isEmpty())
+			throw new IllegalArgumentException("cannot have empty choices");
+		if (!onPlan() && (!failed || (puzzle.getHash() != unsolved)))
+			replan();
+		if (!plan.isEmpty() && choices.contains(plan.peekFirst())) {
+			Direction dir = plan.removeFirst();
+			expected.move(dir);
+			return dir;
+		}
+		plan.clear();
+		expected = null;
+		return choices.get(rnd.nextInt(choices.size()));
+	}
+
+	/**
+	 * Is the puzzle where the plan expects it to be?
+	 *
+	 * @return is the puzzle where the plan expects it to be?
+	 */
+	private boolean onPlan() {
+		if ((expected == null) || plan.isEmpty())
+			return false;
+		Cell actor = puzzle.getActorCell();
+		return (puzzle.getHash() == expected.getHash()) &&
+				(expected.getActor() == expected.index(actor.getRow(), actor.getCol()));
+	}
+
+	/**
+	 * Make a new plan from the current position of the puzzle
+	 */
+	private void replan() {
+		plan.clear();
+		expected = new Board(puzzle.toString());
+		Solver solver = new Solver(expected);
+		solver.setTimeLimit(timeLimit);
+		solver.setWeight(WEIGHT);
+		Vector<Direction> moves = solver.solve();
+		failed = (moves == null);
+		if (failed)
+			unsolved = puzzle.getHash();
+		else
+			plan.addAll(moves);
+	}
+}
@@ -0,0 +1,211 @@
+import java.nio.*;
+
+/**
+ * A table of the search states seen and the fewest pushes each was reached in, kept off the Java
+ * heap in direct ByteBuffers of a fixed total size, so a search can store far more states than
+ * the heap would hold, with nothing for the garbage collector to trace.
+ *
+ * A state is keyed by its Zobrist key (the boxes plus the normalized actor square, see
+ * Board.getHash()) and a 32-bit check of the same encoding (see check), so two states are only
+ * confused if both agree.  The table is open addressing in buckets of four 16-byte entries (one
+ * cache line): the key, the check, and the pushes.  When a bucket is full the entry reached in the
+ * most pushes is replaced, as it guards the smallest part of the search, so a state may be
+ * forgotten and searched again, but the search is never wrong.  Direct buffers count against
+ * -XX:MaxDirectMemorySize, not the heap.  A table is not thread safe.
+ *
+ * @version October 2026
+ */
+public final class TranspositionTable {
+	/** The pushes returned for a state that is not in the table */
+	public static final int NONE = -1;
+
+	private static final int ENTRY        = 16;        // bytes: key (8), check (4), pushes + 1 (4, 0 if empty)
+	private static final int WAYS         = 4;         // entries per bucket
+	private static final int BUCKET_BITS  = 6;         // log2 of the bytes per bucket
+	private static final int SEGMENT_BITS = 24;        // log2 of the buckets per buffer (1 GB)
+
+	private final ByteBuffer[] segments;
+	private final long         mask;                   // buckets - 1
+	private final int          segmentMask;
+	private long               size     = 0;
+	private long               stored   = 0;
+	private long               replaced = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param bytes the most memory to use (at least 64 bytes; rounded down to a power of two)
+	 */
+	public TranspositionTable(long bytes) {
+		if (bytes < (1 << BUCKET_BITS))
+			throw new IllegalArgumentException("table must have room for a bucket");
+		long buckets = Long.highestOneBit(bytes >>> BUCKET_BITS);
+		int  perSegment = (int) Math.min(buckets, 1L << SEGMENT_BITS);
+		mask        = buckets - 1;
+		segmentMask = perSegment - 1;
+		segments    = new ByteBuffer[(int) (buckets / perSegment)];
+		for (int s=0; s<segments.length; s++)
+			segments[s] = ByteBuffer.allocateDirect(perSegment << BUCKET_BITS).order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * A 32-bit check of a state's encoding, independent of its Zobrist key
+	 *
+	 * @param boxes the box squares, in increasing order
+	 * @param normal the normalized actor square
+	 * @return the check
+	 */
+	public static int check(int[] boxes, int normal) {
+		int sum = 0x811c9dc5; // FNV-1a
+		for (int box : boxes)
+			sum = (sum ^ box) * 0x01000193;
+		return (sum ^ normal) * 0x01000193;
+	}
+
+	/**
+	 * Gets the fewest pushes a state has been recorded as reached in
+	 *
+	 * @param key the Zobrist key of the state
+	 * @param check the check of the state
+	 * @return the pushes, or NONE if the state is not in the table
+	 */
+	public int get(long key, int check) {
+		ByteBuffer segment = segment(key);
+		int        base    = offset(key);
+		for (int w=0; w<WAYS; w++) {
+			int at = base + w * ENTRY;
+			int g  = segment.getInt(at + 12);
+			if (g == 0)
+				return NONE;
+			if ((segment.getLong(at) == key) && (segment.getInt(at + 8) == check))
+				return g - 1;
+		}
+		return NONE;
+	}
+
+	/**
+	 * Record that a state has been reached in a number of pushes, unless it has already been
+	 * reached in as few
+	 *
+	 * @param key the Zobrist key of the state
+	 * @param check the check of the state
+	 * @param pushes the pushes (cannot be negative)
+	 * @return was it recorded (it is new, or was forgotten, or is now reached in fewer pushes)?
+	 */
+	public boolean put(long key, int check, int pushes) {
+		if (pushes < 0)
+			throw new IllegalArgumentException("pushes cannot be negative");
+		ByteBuffer segment = segment(key);
+		int        base    = offset(key);
+		int        victim  = base;
+		int        worst   = -1;
+		for (int w=0; w<WAYS; w++) {
+			int at = base + w * ENTRY;
+			int g  = segment.getInt(at + 12);
+			if (g == 0) {
+				write(segment, at, key, check, pushes);
+				size++;
+				stored++;
+				return true;
+			}
+			if ((segment.getLong(at) == key) && (segment.getInt(at + 8) == check)) {
+				if (g - 1 <= pushes)
+					return false;
+				segment.putInt(at + 12, pushes + 1);
+				return true;
+			}
+			if (g > worst) {
+				worst  = g;
+				victim = at;
+			}
+		}
+		write(segment, victim, key, check, pushes);
+		stored++;
+		replaced++;
+		return true;
+	}
+
+	/**
+	 * Forget every state
+	 */
+	public void clear() {
+		for (ByteBuffer segment : segments)
+			for (int at=0; at<segment.capacity(); at+=8)
+				segment.putLong(at, 0);
+		size     = 0;
+		stored   = 0;
+		replaced = 0;
+	}
+
+	/**
+	 * Gets the number of states in the table
+	 *
+	 * @return the number of states
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Gets the most states the table can hold
+	 *
+	 * @return the number of entries
+	 */
+	public long capacity() {
+		return (mask + 1) * WAYS;
+	}
+
+	/**
+	 * Gets the number of new states recorded since the table was made or cleared, including
+	 * those that replaced another
+	 *
+	 * @return the number of states
+	 */
+	public long getStored() {
+		return stored;
+	}
+
+	/**
+	 * Gets the number of states forgotten to make room for others
+	 *
+	 * @return the number of states
+	 */
+	public long getReplaced() {
+		return replaced;
+	}
+
+	/**
+	 * The buffer holding the bucket for a key
+	 *
+	 * @param key the key
+	 * @return the buffer
+	 */
+	private ByteBuffer segment(long key) {
+		return segments[(int) ((key & mask) >>> SEGMENT_BITS)];
+	}
+
+	/**
+	 * The offset of the bucket for a key in its buffer
+	 *
+	 * @param key the key
+	 * @return the byte offset
+	 */
+	private int offset(long key) {
+		return ((int) key & segmentMask) << BUCKET_BITS;
+	}
+
+	/**
+	 * Write an entry
+	 *
+	 * @param segment the buffer
+	 * @param at the byte offset of the entry
+	 * @param key the key
+	 * @param check the check
+	 * @param pushes the pushes
+	 */
+	private static void write(ByteBuffer segment, int at, long key, int check, int pushes) {
+		segment.putLong(at, key);
+		segment.putInt(at + 8, check);
+		segment.putInt(at + 12, pushes + 1);
+	}
+}
@@ -0,0 +1,66 @@
+import java.util.*;
+
+/**
+ * Zobrist keys for Sokoban positions.
+ *
+ * Each cell has a random 64-bit key for a box in it and another for the actor in it.  The key
+ * of a position is the exclusive or of the keys of its boxes and of the normalized actor cell
+ * (the top-left cell the actor can reach), so it changes in O(1) when a box is pushed and not
+ * at all when the actor just walks.
+ *
+ * The keys depend only on the row and column, so Sokoban and Board give the same key for the
+ * same position, and the keys for a level are the same every time it is loaded.
+ *
+ * @version October 2026
+ */
+public final class Zobrist {
+	private static final long SEED = 0x5d0b1b5a3c2e4f71L;
+
+	private final int    numCols;
+	private final long[] boxKeys;
+	private final long[] actorKeys;
+
+	/**
+	 * Constructor
+	 *
+	 * @param numRows the number of cell rows
+	 * @param numCols the number of cell columns
+	 */
+	public Zobrist(int numRows, int numCols) {
+		if ((numRows < 0) || (numCols < 0))
+			throw new IllegalArgumentException("invalid size");
+		this.numCols = numCols;
+		boxKeys      = new long[numRows * numCols];
+		actorKeys    = new long[numRows * numCols];
+		// keys are drawn by cell, so a cell's keys do not depend on the number of columns
+		for (int row=0; row<numRows; row++) {
+			for (int col=0; col<numCols; col++) {
+				SplittableRandom rnd = new SplittableRandom(SEED ^ ((long) row << 32) ^ col);
+				boxKeys[row * numCols + col]   = rnd.nextLong();
+				actorKeys[row * numCols + col] = rnd.nextLong();
+			}
+		}
+	}
+
+	/**
+	 * The key for a box in a cell
+	 *
+	 * @param row row number (starts from 0)
+	 * @param col column number (starts from 0)
+	 * @return the key
+	 */
+	public long box(int row, int col) {
+		return boxKeys[row * numCols + col];
+	}
+
+	/**
+	 * The key for the (normalized) actor in a cell
+	 *
+	 * @param row row number (starts from 0)
+	 * @param col column number (starts from 0)
+	 * @return the key
+	 */
+	public long actor(int row, int col) {
+		return actorKeys[row * numCols + col];
+	}
+}